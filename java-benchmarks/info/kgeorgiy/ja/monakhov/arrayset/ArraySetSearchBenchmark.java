@@ -0,0 +1,73 @@
+package info.kgeorgiy.ja.monakhov.arrayset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.AbstractList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ArraySet#contains} with binary search over the sorted list and over the Eytzinger layout.
+ * Half of the lookups miss, and keys are random, so large sets don't fit in cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ArraySetSearchBenchmark {
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"1000", "1000000", "100000000"})
+    public int size;
+
+    private ArraySet<Integer> binarySearch;
+    private ArraySet<Integer> eytzinger;
+    private Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Even numbers are present, odd ones are not
+        binarySearch = ArraySet.ofSorted(new AbstractList<>() {
+            @Override
+            public Integer get(final int index) {
+                return 2 * index;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+        eytzinger = binarySearch.withEytzingerLayout();
+
+        final Random random = new Random(size);
+        keys = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            keys[i] = random.nextInt(2 * size);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int binarySearch() {
+        return count(binarySearch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int eytzinger() {
+        return count(eytzinger);
+    }
+
+    private int count(final ArraySet<Integer> set) {
+        int found = 0;
+        for (final Integer key : keys) {
+            if (set.contains(key)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,76 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileChunkReaderBenchmark {
+    @Param({"65536", "16777216", "1073741824"})
+    public long size;
+
+    private final FileChunkReader stream = new FileChunkReader(FileChunkReader.NEVER_MAP);
+    private final FileChunkReader mapped = new FileChunkReader(0);
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("walk-benchmark", null);
+        final Random random = new Random(size);
+        final byte[] block = new byte[1 << 16];
+        try (final OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                random.nextBytes(block);
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public long stream() throws IOException {
+        return read(stream);
+    }
+
+    @Benchmark
+    public long mapped() throws IOException {
+        return read(mapped);
+    }
+
+    private long read(final FileChunkReader reader) throws IOException {
+        final Checksum checksum = new Checksum();
+        reader.read(file, checksum);
+        return checksum.sum;
+    }
+
+    // Touches every byte without hashing cost dominating the I/O
+    private static class Checksum implements Consumer<ByteBuffer> {
+        private long sum;
+
+        @Override
+        public void accept(final ByteBuffer buffer) {
+            while (buffer.remaining() >= Long.BYTES) {
+                sum += buffer.getLong();
+            }
+            while (buffer.hasRemaining()) {
+                sum += buffer.get();
+            }
+        }
+    }
+}
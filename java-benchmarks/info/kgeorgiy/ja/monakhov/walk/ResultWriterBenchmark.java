@@ -0,0 +1,57 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing one result line. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultWriterBenchmark {
+    private static final String NAME = "data/some/reasonably/deep/directory/structure/file-name.txt";
+
+    private final byte[] hash = {0x00, 0x12, 0x34, 0x56, 0x78, (byte) 0x9a, (byte) 0xbc, (byte) 0xde};
+    private final long value = 0x00123456789abcdeL;
+
+    private Path formatFile;
+    private Path resultFile;
+    private BufferedWriter bufferedWriter;
+    private ResultWriter resultWriter;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        formatFile = Files.createTempFile("walk-benchmark", null);
+        resultFile = Files.createTempFile("walk-benchmark", null);
+        bufferedWriter = Files.newBufferedWriter(formatFile);
+        resultWriter = new ResultWriter(resultFile);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        bufferedWriter.close();
+        resultWriter.close();
+        Files.delete(formatFile);
+        Files.delete(resultFile);
+    }
+
+    @Benchmark
+    public void format() throws IOException {
+        bufferedWriter.write(String.format("%016x", value) + " " + NAME);
+        bufferedWriter.newLine();
+    }
+
+    @Benchmark
+    public void resultWriter() throws IOException {
+        resultWriter.write(hash, NAME);
+    }
+}
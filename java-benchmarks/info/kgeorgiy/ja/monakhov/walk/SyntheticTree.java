@@ -0,0 +1,103 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+/**
+ * Generates reproducible directory trees of random files for walk benchmarks.
+ */
+public class SyntheticTree {
+    private final Path root;
+    private final Random random;
+    private long files;
+    private long bytes;
+
+    private SyntheticTree(final Path root, final long seed) {
+        this.root = root;
+        random = new Random(seed);
+    }
+
+    public enum Shape {
+        /** 20 000 files of 512 bytes in 100 directories */
+        TINY_FILES,
+        /** 4 files of 256 MiB */
+        HUGE_FILES,
+        /** Chain of 200 nested directories with 4 files of 4 KiB on every level */
+        DEEP_NESTING
+    }
+
+    public static SyntheticTree create(final Shape shape) throws IOException {
+        final SyntheticTree tree = new SyntheticTree(Files.createTempDirectory("walk-benchmark"), shape.ordinal());
+        switch (shape) {
+            case TINY_FILES:
+                for (int i = 0; i < 100; i++) {
+                    final Path directory = Files.createDirectory(tree.root.resolve("d" + i));
+                    for (int j = 0; j < 200; j++) {
+                        tree.file(directory.resolve("f" + j), 512);
+                    }
+                }
+                break;
+            case HUGE_FILES:
+                for (int i = 0; i < 4; i++) {
+                    tree.file(tree.root.resolve("f" + i), 256L << 20);
+                }
+                break;
+            case DEEP_NESTING:
+                Path directory = tree.root;
+                for (int i = 0; i < 200; i++) {
+                    for (int j = 0; j < 4; j++) {
+                        tree.file(directory.resolve("f" + j), 4096);
+                    }
+                    directory = Files.createDirectory(directory.resolve("d"));
+                }
+                break;
+        }
+        return tree;
+    }
+
+    private void file(final Path file, final long size) throws IOException {
+        final byte[] block = new byte[1 << 16];
+        try (final OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                random.nextBytes(block);
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+        files++;
+        bytes += size;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public long getFiles() {
+        return files;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void delete() throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Throughput of a whole recursive walk for every tree shape, hash algorithm and I/O strategy.
+ * Besides walks per second, reports {@code megabytes} and {@code files} hashed per second.
+ * Trees are generated once per trial and hashed from the page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WalkBenchmark {
+    public enum Strategy {
+        STREAM(FileChunkReader.NEVER_MAP, 0),
+        MAPPED(0, 0),
+        ASYNC(FileChunkReader.NEVER_MAP, 16);
+
+        private final long mapThreshold;
+        private final int asyncReads;
+
+        Strategy(final long mapThreshold, final int asyncReads) {
+            this.mapThreshold = mapThreshold;
+            this.asyncReads = asyncReads;
+        }
+    }
+
+    @Param
+    public SyntheticTree.Shape shape;
+
+    @Param
+    public HashAlgorithm algorithm;
+
+    @Param
+    public Strategy strategy;
+
+    @Param({"1", "8"})
+    public int threads;
+
+    @Param({"0", "8"})
+    public int walkers;
+
+    private SyntheticTree tree;
+    private Path output;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long files;
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            files = 0;
+            megabytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tree = SyntheticTree.create(shape);
+        output = Files.createTempFile("walk-benchmark", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tree.delete();
+        Files.delete(output);
+    }
+
+    @Benchmark
+    public void walk(final Counters counters) throws IOException {
+        try (final ResultWriter writer = new ResultWriter(output);
+             final HashPipeline pipeline = new HashPipeline(writer, null, new FileChunkReader(strategy.mapThreshold),
+                     algorithm::newHasher, threads, strategy.asyncReads, null, new WalkStats());
+             final ForkJoinFileWalker walker = walkers > 0 ? new ForkJoinFileWalker(walkers) : null) {
+            final WalkFileVisitor visitor = new WalkFileVisitor(pipeline);
+            if (walker != null) {
+                walker.walk(tree.getRoot(), visitor);
+            } else {
+                Files.walkFileTree(tree.getRoot(), visitor);
+            }
+        }
+        counters.files += tree.getFiles();
+        counters.megabytes += tree.getBytes() / 1e6;
+    }
+}
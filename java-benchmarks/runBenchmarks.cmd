@@ -0,0 +1,9 @@
+SET jmh=..\..\java-advanced-2021\lib\jmh
+SET src=..\java-solutions
+SET dest=tmp-benchmarks
+
+javac -encoding UTF-8 -d %dest% -cp %jmh%\* -processorpath %jmh%\* -sourcepath %src%;. info\kgeorgiy\ja\monakhov\walk\*.java info\kgeorgiy\ja\monakhov\arrayset\*.java
+
+java -cp %dest%;%jmh%\* org.openjdk.jmh.Main -rf csv -rff benchmarks.csv %*
+
+rmdir /s /q %dest%
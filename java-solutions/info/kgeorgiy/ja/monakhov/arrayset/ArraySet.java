@@ -2,28 +2,65 @@ package info.kgeorgiy.ja.monakhov.arrayset;
 
 import java.util.*;
 
-public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
+public class ArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
     private final List<E> list;
     private Comparator<? super E> comparator;
+    // Elements in Eytzinger (BFS) order starting from index 1, or null
+    private final Object[] eytzinger;
 
     public ArraySet(){
-        list = new ArrayList<>();
+        this(null, new ArrayList<>());
     }
 
     public ArraySet(final Collection<? extends E> collection) {
-        list = new ArrayList<>(new TreeSet<>(collection));
+        this(collection, null);
     }
 
+    /**
+     * Takes elements as is if they are already strictly ascending, otherwise sorts them.
+     * Of equal elements the first one is kept.
+     */
     public ArraySet(final Collection<? extends E> collection, final Comparator<? super E> comparator) {
-        final TreeSet<E> treeSet = new TreeSet<>(comparator);
-        treeSet.addAll(collection);
-        this.comparator = comparator;
-        list = new ArrayList<>(treeSet);
+        this(comparator, sorted(collection, comparator));
     }
 
     private ArraySet(final Comparator<? super E> comparator, final List<E> view) {
+        this(comparator, view, null);
+    }
+
+    private ArraySet(final Comparator<? super E> comparator, final List<E> view, final Object[] eytzinger) {
         list = view;
-        this.comparator = comparator;
+        // Natural order is kept as null, so sets in the same order have equal comparators
+        this.comparator = comparator == Comparator.naturalOrder() ? null : comparator;
+        this.eytzinger = eytzinger;
+    }
+
+    /**
+     * Returns copy of this set that additionally keeps its elements in Eytzinger (BFS) order,
+     * speeding up {@link #contains} on large sets at the cost of another reference per element.
+     * Top levels of the implicit tree share cache lines, and the next index is computed without branching.
+     * Views of the copy use ordinary binary search.
+     */
+    public ArraySet<E> withEytzingerLayout() {
+        final Object[] tree = new Object[list.size() + 1];
+        fillEytzinger(tree, 0, 1);
+        return new ArraySet<>(comparator, list, tree);
+    }
+
+    /**
+     * Creates set of elements in natural order without checking that they are strictly ascending.
+     */
+    public static <E> ArraySet<E> ofSorted(final Collection<? extends E> sorted) {
+        return ofSorted(sorted, null);
+    }
+
+    /**
+     * Creates set of elements in {@code comparator} order without checking that they are strictly ascending.
+     */
+    public static <E> ArraySet<E> ofSorted(final Collection<? extends E> sorted, final Comparator<? super E> comparator) {
+        return new ArraySet<>(comparator, Arrays.asList(toArray(sorted)));
     }
 
     @Override
@@ -42,22 +79,82 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
     }
 
     @Override
-    public ArraySet<E> subSet(final E fromElement, final E toElement) {
-        if (comparator.compare(fromElement, toElement) > 0) {
-            throw new IllegalArgumentException("From index must be lesser or equal than to index");
+    public E lower(final E element) {
+        return get(lowerIndex(element, false));
+    }
+
+    @Override
+    public E floor(final E element) {
+        return get(lowerIndex(element, true));
+    }
+
+    @Override
+    public E ceiling(final E element) {
+        return get(higherIndex(element, true));
+    }
+
+    @Override
+    public E higher(final E element) {
+        return get(higherIndex(element, false));
+    }
+
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException("ArraySet is immutable");
+    }
+
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException("ArraySet is immutable");
+    }
+
+    /**
+     * Returns view of the same elements in reverse order, taking constant time and memory.
+     */
+    @Override
+    public ArraySet<E> descendingSet() {
+        // Reverse of reverse natural order is natural order, kept as null
+        return new ArraySet<>(comparator == Collections.reverseOrder() ? null : Collections.reverseOrder(comparator),
+                ReversedList.reverse(list));
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public ArraySet<E> subSet(final E fromElement, final boolean fromInclusive, final E toElement, final boolean toInclusive) {
+        if (compare(comparator, fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("From element must be lesser or equal than to element");
         }
-        return subSet(find(fromElement), find(toElement));
+        final int from = higherIndex(fromElement, fromInclusive);
+        return subSet(from, Math.max(from, lowerIndex(toElement, toInclusive) + 1));
+    }
+
+    @Override
+    public ArraySet<E> headSet(final E toElement, final boolean inclusive) {
+        return subSet(0, lowerIndex(toElement, inclusive) + 1);
+    }
+
+    @Override
+    public ArraySet<E> tailSet(final E fromElement, final boolean inclusive) {
+        return subSet(higherIndex(fromElement, inclusive), list.size());
     }
 
+    @Override
+    public ArraySet<E> subSet(final E fromElement, final E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
 
     @Override
     public ArraySet<E> headSet(final E toElement) {
-        return subSet(0, find(toElement));
+        return headSet(toElement, false);
     }
 
     @Override
     public ArraySet<E> tailSet(final E fromElement) {
-        return subSet(find(fromElement), list.size());
+        return tailSet(fromElement, true);
     }
 
     @Override
@@ -75,16 +172,182 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
     @Override
     @SuppressWarnings("unchecked")
     public boolean contains(final Object o) {
-        return binarySearch((E) o) >= 0;
+        return eytzinger != null ? eytzingerContains((E) Objects.requireNonNull(o)) : binarySearch((E) o) >= 0;
+    }
+
+    /**
+     * Returns elements of this set and of {@code other} in linear time.
+     * Of equal elements the one from this set is kept.
+     *
+     * @throws IllegalArgumentException if sets have different comparators
+     */
+    public ArraySet<E> union(final ArraySet<E> other) {
+        checkComparator(other);
+        final E[] result = newArray(list.size() + other.list.size());
+        int size = 0, i = 0, j = 0;
+        while (i < list.size() && j < other.list.size()) {
+            final int cmp = compare(comparator, list.get(i), other.list.get(j));
+            if (cmp <= 0) {
+                result[size++] = list.get(i++);
+                j += cmp == 0 ? 1 : 0;
+            } else {
+                result[size++] = other.list.get(j++);
+            }
+        }
+        while (i < list.size()) {
+            result[size++] = list.get(i++);
+        }
+        while (j < other.list.size()) {
+            result[size++] = other.list.get(j++);
+        }
+        return of(result, size);
+    }
+
+    /**
+     * Returns elements of this set that are contained in {@code other}.
+     * Elements of the smaller set are searched in the larger one with galloping,
+     * taking O(m log(n / m)) comparisons for sets of sizes m &le; n.
+     *
+     * @throws IllegalArgumentException if sets have different comparators
+     */
+    public ArraySet<E> intersection(final ArraySet<E> other) {
+        checkComparator(other);
+        final boolean smaller = list.size() <= other.list.size();
+        final List<E> small = smaller ? list : other.list;
+        final List<E> large = smaller ? other.list : list;
+        final E[] result = newArray(small.size());
+        int size = 0, position = 0;
+        for (final E element : small) {
+            position = gallop(large, position, element);
+            if (position == large.size()) {
+                break;
+            }
+            if (compare(comparator, large.get(position), element) == 0) {
+                result[size++] = smaller ? element : large.get(position);
+            }
+        }
+        return of(result, size);
+    }
+
+    /**
+     * Returns elements of this set that aren't contained in {@code other}.
+     *
+     * @throws IllegalArgumentException if sets have different comparators
+     */
+    public ArraySet<E> difference(final ArraySet<E> other) {
+        checkComparator(other);
+        final E[] result = newArray(list.size());
+        int size = 0, position = 0;
+        for (final E element : list) {
+            position = gallop(other.list, position, element);
+            if (position == other.list.size() || compare(comparator, other.list.get(position), element) != 0) {
+                result[size++] = element;
+            }
+        }
+        return of(result, size);
+    }
+
+    /**
+     * Checks {@link ArraySet} with the same comparator by galloping through this set,
+     * other collections element by element.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsAll(final Collection<?> c) {
+        if (!(c instanceof ArraySet) || !Objects.equals(comparator, ((ArraySet<?>) c).comparator)) {
+            return super.containsAll(c);
+        }
+        int position = 0;
+        for (final E element : ((ArraySet<E>) c).list) {
+            position = gallop(list, position, element);
+            if (position == list.size() || compare(comparator, list.get(position), element) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkComparator(final ArraySet<E> other) {
+        if (!Objects.equals(comparator, other.comparator)) {
+            throw new IllegalArgumentException("Sets must have the same comparator");
+        }
+    }
+
+    // Index of the first element of list not less than element, starting from index from
+    private int gallop(final List<E> list, final int from, final E element) {
+        int low = from, high = from;
+        for (int step = 1; high < list.size() && compare(comparator, list.get(high), element) < 0; step <<= 1) {
+            low = high + 1;
+            high += step;
+        }
+        high = Math.min(high, list.size());
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(comparator, list.get(mid), element) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E[] newArray(final int size) {
+        return (E[]) new Object[size];
+    }
+
+    private ArraySet<E> of(final E[] elements, final int size) {
+        return new ArraySet<>(comparator, trimmed(elements, size));
+    }
+
+    // Doesn't keep unused tail of the array
+    private static <E> List<E> trimmed(final E[] elements, final int size) {
+        return Arrays.asList(size < elements.length ? Arrays.copyOf(elements, size) : elements);
     }
 
     private void checkNonEmpty() {
         if (list.isEmpty()) throw new NoSuchElementException("Set is empty");
     }
 
-    private int find(final E element) {
+    @SuppressWarnings("unchecked")
+    private boolean eytzingerContains(final E element) {
+        int k = 1;
+        while (k < eytzinger.length) {
+            final int cmp = compare(comparator, (E) eytzinger[k], element);
+            if (cmp == 0) {
+                return true;
+            }
+            // Right child if node is less than element
+            k = 2 * k + (cmp >>> 31);
+        }
+        return false;
+    }
+
+    // Fills subtree rooted at k with sorted elements starting from index, returns index of the next element
+    private int fillEytzinger(final Object[] tree, final int index, final int k) {
+        if (k >= tree.length) {
+            return index;
+        }
+        final int next = fillEytzinger(tree, index, 2 * k);
+        tree[k] = list.get(next);
+        return fillEytzinger(tree, next + 1, 2 * k + 1);
+    }
+
+    // Index of the greatest element less than (or equal to) element, or -1
+    private int lowerIndex(final E element, final boolean inclusive) {
         final int i = binarySearch(element);
-        return i >= 0 ? i : -i - 1;
+        return i >= 0 ? (inclusive ? i : i - 1) : -i - 2;
+    }
+
+    // Index of the least element greater than (or equal to) element, or size
+    private int higherIndex(final E element, final boolean inclusive) {
+        final int i = binarySearch(element);
+        return i >= 0 ? (inclusive ? i : i + 1) : -i - 1;
+    }
+
+    private E get(final int index) {
+        return 0 <= index && index < list.size() ? list.get(index) : null;
     }
 
     private int binarySearch(final E element) {
@@ -94,4 +357,75 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
     private ArraySet<E> subSet(final int from, final int to) {
         return new ArraySet<>(comparator, list.subList(from, to));
     }
+
+    private static <E> List<E> sorted(final Collection<? extends E> collection, final Comparator<? super E> comparator) {
+        final E[] elements = toArray(collection);
+        if (isStrictlyAscending(elements, comparator)) {
+            return Arrays.asList(elements);
+        }
+
+        if (elements.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(elements, comparator);
+        } else {
+            Arrays.sort(elements, comparator);
+        }
+        // Both sorts are stable, so the first of equal elements stays in front
+        int size = 0;
+        for (final E element : elements) {
+            if (size == 0 || compare(comparator, elements[size - 1], element) != 0) {
+                elements[size++] = element;
+            }
+        }
+        return trimmed(elements, size);
+    }
+
+    private static <E> boolean isStrictlyAscending(final E[] elements, final Comparator<? super E> comparator) {
+        for (int i = 1; i < elements.length; i++) {
+            if (compare(comparator, elements[i - 1], elements[i]) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E[] toArray(final Collection<? extends E> collection) {
+        final E[] elements = (E[]) collection.toArray();
+        for (final E element : elements) {
+            Objects.requireNonNull(element);
+        }
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int compare(final Comparator<? super E> comparator, final E a, final E b) {
+        return comparator == null ? ((Comparable<? super E>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    private static class ReversedList<E> extends AbstractList<E> implements RandomAccess {
+        private final List<E> list;
+
+        private ReversedList(final List<E> list) {
+            this.list = list;
+        }
+
+        private static <E> List<E> reverse(final List<E> list) {
+            return list instanceof ReversedList ? ((ReversedList<E>) list).list : new ReversedList<>(list);
+        }
+
+        @Override
+        public E get(final int index) {
+            return list.get(list.size() - 1 - index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public List<E> subList(final int fromIndex, final int toIndex) {
+            return new ReversedList<>(list.subList(list.size() - toIndex, list.size() - fromIndex));
+        }
+    }
 }
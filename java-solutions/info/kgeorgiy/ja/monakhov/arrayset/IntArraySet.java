@@ -0,0 +1,207 @@
+package info.kgeorgiy.ja.monakhov.arrayset;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable sorted set of {@code int} values backed by a sorted {@code int[]} without boxing.
+ * Sub sets are views sharing the same array.
+ * Sets are equal if they have the same elements, and hash as {@link Set#hashCode()} of their {@link #boxed()} views.
+ */
+public class IntArraySet {
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+    private static final IntArraySet EMPTY = new IntArraySet(new int[0], 0, 0);
+
+    private final int[] elements;
+    private final int from;
+    private final int to;
+
+    private IntArraySet(final int[] elements, final int from, final int to) {
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static IntArraySet of() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates set of distinct {@code values} in any order.
+     */
+    public static IntArraySet of(final int... values) {
+        final int[] elements = values.clone();
+        if (!isStrictlyAscending(elements)) {
+            if (elements.length >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(elements);
+            } else {
+                Arrays.sort(elements);
+            }
+        }
+        int size = 0;
+        for (final int element : elements) {
+            if (size == 0 || elements[size - 1] != element) {
+                elements[size++] = element;
+            }
+        }
+        return new IntArraySet(size < elements.length ? Arrays.copyOf(elements, size) : elements, 0, size);
+    }
+
+    /**
+     * Creates set of {@code values} without checking that they are strictly ascending.
+     */
+    public static IntArraySet ofSorted(final int... values) {
+        return new IntArraySet(values.clone(), 0, values.length);
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    public boolean contains(final int value) {
+        return Arrays.binarySearch(elements, from, to, value) >= 0;
+    }
+
+    public int first() {
+        checkNonEmpty();
+        return elements[from];
+    }
+
+    public int last() {
+        checkNonEmpty();
+        return elements[to - 1];
+    }
+
+    public IntArraySet subSet(final int fromElement, final int toElement) {
+        if (fromElement > toElement) {
+            throw new IllegalArgumentException("From element must be lesser or equal than to element");
+        }
+        return view(find(fromElement), find(toElement));
+    }
+
+    public IntArraySet headSet(final int toElement) {
+        return view(from, find(toElement));
+    }
+
+    public IntArraySet tailSet(final int fromElement) {
+        return view(find(fromElement), to);
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return stream().iterator();
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(elements, from, to);
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    /**
+     * Returns {@link SortedSet} view of this set, boxing elements on access.
+     */
+    public SortedSet<Integer> boxed() {
+        return new Boxed();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntArraySet)) {
+            return false;
+        }
+        final IntArraySet other = (IntArraySet) o;
+        return Arrays.equals(elements, from, to, other.elements, other.from, other.to);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash += Integer.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void checkNonEmpty() {
+        if (isEmpty()) throw new NoSuchElementException("Set is empty");
+    }
+
+    private int find(final int element) {
+        final int i = Arrays.binarySearch(elements, from, to, element);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private IntArraySet view(final int from, final int to) {
+        return from == this.from && to == this.to ? this : new IntArraySet(elements, from, to);
+    }
+
+    private static boolean isStrictlyAscending(final int[] elements) {
+        for (int i = 1; i < elements.length; i++) {
+            if (elements[i - 1] >= elements[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class Boxed extends AbstractSet<Integer> implements SortedSet<Integer> {
+        @Override
+        public Iterator<Integer> iterator() {
+            return IntArraySet.this.iterator();
+        }
+
+        @Override
+        public int size() {
+            return IntArraySet.this.size();
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return o instanceof Integer && IntArraySet.this.contains((Integer) o);
+        }
+
+        @Override
+        public Comparator<? super Integer> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedSet<Integer> subSet(final Integer fromElement, final Integer toElement) {
+            return IntArraySet.this.subSet(fromElement, toElement).boxed();
+        }
+
+        @Override
+        public SortedSet<Integer> headSet(final Integer toElement) {
+            return IntArraySet.this.headSet(toElement).boxed();
+        }
+
+        @Override
+        public SortedSet<Integer> tailSet(final Integer fromElement) {
+            return IntArraySet.this.tailSet(fromElement).boxed();
+        }
+
+        @Override
+        public Integer first() {
+            return IntArraySet.this.first();
+        }
+
+        @Override
+        public Integer last() {
+            return IntArraySet.this.last();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package info.kgeorgiy.ja.monakhov.arrayset;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable sorted set of {@code long} values backed by a sorted {@code long[]} without boxing.
+ * Sub sets are views sharing the same array.
+ * Sets are equal if they have the same elements, and hash as {@link Set#hashCode()} of their {@link #boxed()} views.
+ */
+public class LongArraySet {
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+    private static final LongArraySet EMPTY = new LongArraySet(new long[0], 0, 0);
+
+    private final long[] elements;
+    private final int from;
+    private final int to;
+
+    private LongArraySet(final long[] elements, final int from, final int to) {
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static LongArraySet of() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates set of distinct {@code values} in any order.
+     */
+    public static LongArraySet of(final long... values) {
+        final long[] elements = values.clone();
+        if (!isStrictlyAscending(elements)) {
+            if (elements.length >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(elements);
+            } else {
+                Arrays.sort(elements);
+            }
+        }
+        int size = 0;
+        for (final long element : elements) {
+            if (size == 0 || elements[size - 1] != element) {
+                elements[size++] = element;
+            }
+        }
+        return new LongArraySet(size < elements.length ? Arrays.copyOf(elements, size) : elements, 0, size);
+    }
+
+    /**
+     * Creates set of {@code values} without checking that they are strictly ascending.
+     */
+    public static LongArraySet ofSorted(final long... values) {
+        return new LongArraySet(values.clone(), 0, values.length);
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    public boolean contains(final long value) {
+        return Arrays.binarySearch(elements, from, to, value) >= 0;
+    }
+
+    public long first() {
+        checkNonEmpty();
+        return elements[from];
+    }
+
+    public long last() {
+        checkNonEmpty();
+        return elements[to - 1];
+    }
+
+    public LongArraySet subSet(final long fromElement, final long toElement) {
+        if (fromElement > toElement) {
+            throw new IllegalArgumentException("From element must be lesser or equal than to element");
+        }
+        return view(find(fromElement), find(toElement));
+    }
+
+    public LongArraySet headSet(final long toElement) {
+        return view(from, find(toElement));
+    }
+
+    public LongArraySet tailSet(final long fromElement) {
+        return view(find(fromElement), to);
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return stream().iterator();
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(elements, from, to);
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    /**
+     * Returns {@link SortedSet} view of this set, boxing elements on access.
+     */
+    public SortedSet<Long> boxed() {
+        return new Boxed();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongArraySet)) {
+            return false;
+        }
+        final LongArraySet other = (LongArraySet) o;
+        return Arrays.equals(elements, from, to, other.elements, other.from, other.to);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash += Long.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void checkNonEmpty() {
+        if (isEmpty()) throw new NoSuchElementException("Set is empty");
+    }
+
+    private int find(final long element) {
+        final int i = Arrays.binarySearch(elements, from, to, element);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private LongArraySet view(final int from, final int to) {
+        return from == this.from && to == this.to ? this : new LongArraySet(elements, from, to);
+    }
+
+    private static boolean isStrictlyAscending(final long[] elements) {
+        for (int i = 1; i < elements.length; i++) {
+            if (elements[i - 1] >= elements[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class Boxed extends AbstractSet<Long> implements SortedSet<Long> {
+        @Override
+        public Iterator<Long> iterator() {
+            return LongArraySet.this.iterator();
+        }
+
+        @Override
+        public int size() {
+            return LongArraySet.this.size();
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return o instanceof Long && LongArraySet.this.contains((Long) o);
+        }
+
+        @Override
+        public Comparator<? super Long> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedSet<Long> subSet(final Long fromElement, final Long toElement) {
+            return LongArraySet.this.subSet(fromElement, toElement).boxed();
+        }
+
+        @Override
+        public SortedSet<Long> headSet(final Long toElement) {
+            return LongArraySet.this.headSet(toElement).boxed();
+        }
+
+        @Override
+        public SortedSet<Long> tailSet(final Long fromElement) {
+            return LongArraySet.this.tailSet(fromElement).boxed();
+        }
+
+        @Override
+        public Long first() {
+            return LongArraySet.this.first();
+        }
+
+        @Override
+        public Long last() {
+            return LongArraySet.this.last();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package info.kgeorgiy.ja.monakhov.arrayset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable sorted set of {@code long} values stored in a memory-mapped file, so it takes no heap
+ * besides the mappings and opens without reading the file.
+ * File layout: magic, version, element count, elements in ascending order, all little-endian.
+ * Sub sets are views sharing the same mappings.
+ */
+public class MappedLongArraySet {
+    private static final int MAGIC = 0x4c415331;
+    private static final int VERSION = 1;
+    // Keeps elements aligned
+    private static final int HEADER = 2 * Integer.BYTES + Long.BYTES;
+    // Single mapping can't exceed Integer.MAX_VALUE bytes
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final LongBuffer[] segments;
+    private final long from;
+    private final long to;
+
+    private MappedLongArraySet(final LongBuffer[] segments, final long from, final long to) {
+        this.segments = segments;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Writes strictly ascending {@code values} to {@code file}, replacing its contents.
+     */
+    public static void write(final Path file, final LongStream values) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(0);
+                long count = 0;
+                long previous = 0;
+                for (final PrimitiveIterator.OfLong iterator = values.iterator(); iterator.hasNext(); count++) {
+                    final long value = iterator.nextLong();
+                    if (count > 0 && previous >= value) {
+                        throw new IllegalArgumentException("Values must be strictly ascending");
+                    }
+                    previous = value;
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+                    buffer.putLong(value);
+                }
+                flush(channel, buffer);
+                channel.write(buffer.putLong(count).flip(), 2 * Integer.BYTES);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static MappedLongArraySet open(final Path file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer header = size < HEADER ? null
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (header == null || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a sorted set file: " + file);
+            }
+            final long count = header.getLong();
+            if (count < 0 || HEADER + count * Long.BYTES != size) {
+                throw new IOException("Corrupted sorted set file: " + file);
+            }
+
+            final LongBuffer[] segments = new LongBuffer[(int) ((count + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                final long first = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * Long.BYTES,
+                                Math.min(SEGMENT_MASK + 1, count - first) * Long.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asLongBuffer();
+            }
+            return new MappedLongArraySet(segments, 0, count);
+        }
+    }
+
+    public long size() {
+        return to - from;
+    }
+
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    public boolean contains(final long value) {
+        return binarySearch(value) >= 0;
+    }
+
+    public long first() {
+        checkNonEmpty();
+        return get(from);
+    }
+
+    public long last() {
+        checkNonEmpty();
+        return get(to - 1);
+    }
+
+    public MappedLongArraySet subSet(final long fromElement, final long toElement) {
+        if (fromElement > toElement) {
+            throw new IllegalArgumentException("From element must be lesser or equal than to element");
+        }
+        return view(find(fromElement), find(toElement));
+    }
+
+    public MappedLongArraySet headSet(final long toElement) {
+        return view(from, find(toElement));
+    }
+
+    public MappedLongArraySet tailSet(final long fromElement) {
+        return view(find(fromElement), to);
+    }
+
+    public LongStream stream() {
+        return LongStream.range(from, to).map(this::get);
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return stream().iterator();
+    }
+
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private long get(final long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    private long binarySearch(final long value) {
+        long low = from, high = to - 1;
+        while (low <= high) {
+            final long mid = (low + high) >>> 1;
+            final long element = get(mid);
+            if (element < value) {
+                low = mid + 1;
+            } else if (element > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private long find(final long value) {
+        final long i = binarySearch(value);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private void checkNonEmpty() {
+        if (isEmpty()) throw new NoSuchElementException("Set is empty");
+    }
+
+    private MappedLongArraySet view(final long from, final long to) {
+        return new MappedLongArraySet(segments, from, to);
+    }
+}
@@ -0,0 +1,406 @@
+package info.kgeorgiy.ja.monakhov.arrayset;
+
+import java.util.*;
+
+/**
+ * Mutable counterpart of {@link ArraySet}.
+ * Elements are kept in a list of sorted arrays of at most {@value #BLOCK_SIZE} elements,
+ * so lookups are two binary searches and updates shift a single block.
+ * Full blocks are split on insertion, and small neighbouring blocks are merged on removal.
+ * Sub sets are views backed by this set.
+ */
+public class MutableArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
+    private static final int BLOCK_SIZE = 1 << 9;
+
+    private final Blocks<E> blocks;
+    // Bounds of view, null if unbounded
+    private final E from;
+    private final E to;
+
+    public MutableArraySet() {
+        this(Collections.emptyList(), null);
+    }
+
+    public MutableArraySet(final Comparator<? super E> comparator) {
+        this(Collections.emptyList(), comparator);
+    }
+
+    public MutableArraySet(final Collection<? extends E> collection) {
+        this(collection, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public MutableArraySet(final Collection<? extends E> collection, final Comparator<? super E> comparator) {
+        final E[] elements = (E[]) collection.toArray();
+        for (final E element : elements) {
+            Objects.requireNonNull(element);
+        }
+        Arrays.sort(elements, comparator);
+        blocks = new Blocks<>(comparator);
+        for (final E element : elements) {
+            blocks.append(element);
+        }
+        from = null;
+        to = null;
+    }
+
+    private MutableArraySet(final Blocks<E> blocks, final E from, final E to) {
+        this.blocks = blocks;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new BlockIterator();
+    }
+
+    @Override
+    public int size() {
+        return (to == null ? blocks.size : blocks.rank(to)) - (from == null ? 0 : blocks.rank(from));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return blocks.comparator;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(final Object o) {
+        final E element = (E) Objects.requireNonNull(o);
+        return inRange(element) && blocks.contains(element);
+    }
+
+    @Override
+    public boolean add(final E element) {
+        if (!inRange(Objects.requireNonNull(element))) {
+            throw new IllegalArgumentException("Element is out of range");
+        }
+        return blocks.add(element);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(final Object o) {
+        final E element = (E) Objects.requireNonNull(o);
+        return inRange(element) && blocks.remove(element);
+    }
+
+    @Override
+    public void clear() {
+        if (from == null && to == null) {
+            blocks.clear();
+        } else {
+            super.clear();
+        }
+    }
+
+    @Override
+    public MutableArraySet<E> subSet(final E fromElement, final E toElement) {
+        if (blocks.compare(Objects.requireNonNull(fromElement), Objects.requireNonNull(toElement)) > 0) {
+            throw new IllegalArgumentException("From element must be lesser or equal than to element");
+        }
+        return view(fromElement, toElement);
+    }
+
+    @Override
+    public MutableArraySet<E> headSet(final E toElement) {
+        return view(from, Objects.requireNonNull(toElement));
+    }
+
+    @Override
+    public MutableArraySet<E> tailSet(final E fromElement) {
+        return view(Objects.requireNonNull(fromElement), to);
+    }
+
+    @Override
+    public E first() {
+        final Iterator<E> iterator = iterator();
+        if (!iterator.hasNext()) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return iterator.next();
+    }
+
+    @Override
+    public E last() {
+        final E last = to == null ? blocks.last() : blocks.lower(to);
+        if (last == null || from != null && blocks.compare(last, from) < 0) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return last;
+    }
+
+    private MutableArraySet<E> view(final E fromElement, final E toElement) {
+        if (fromElement != null && !inBounds(fromElement) || toElement != null && !inBounds(toElement)) {
+            throw new IllegalArgumentException("Bound is out of range");
+        }
+        return new MutableArraySet<>(blocks, fromElement, toElement);
+    }
+
+    private boolean inRange(final E element) {
+        return (from == null || blocks.compare(element, from) >= 0) && (to == null || blocks.compare(element, to) < 0);
+    }
+
+    private boolean inBounds(final E element) {
+        return (from == null || blocks.compare(element, from) >= 0) && (to == null || blocks.compare(element, to) <= 0);
+    }
+
+    private class BlockIterator implements Iterator<E> {
+        private int block;
+        private int index;
+        private E last;
+        private int modCount = blocks.modCount;
+
+        private BlockIterator() {
+            if (from != null) {
+                seek(from, true);
+            }
+        }
+
+        private void seek(final E element, final boolean inclusive) {
+            block = blocks.block(element);
+            if (block < blocks.list.size()) {
+                final int i = blocks.list.get(block).search(element, blocks.comparator);
+                index = i >= 0 ? (inclusive ? i : i + 1) : -i - 1;
+                normalize();
+            }
+        }
+
+        private void normalize() {
+            if (index == blocks.list.get(block).size) {
+                block++;
+                index = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkModification();
+            return block < blocks.list.size() && (to == null || blocks.compare(current(), to) < 0);
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = current();
+            index++;
+            normalize();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            checkModification();
+            blocks.remove(last);
+            modCount = blocks.modCount;
+            seek(last, false);
+            last = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E current() {
+            return (E) blocks.list.get(block).elements[index];
+        }
+
+        private void checkModification() {
+            if (modCount != blocks.modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private static class Blocks<E> {
+        private final Comparator<? super E> comparator;
+        private final List<Block> list = new ArrayList<>();
+        private int size;
+        private int modCount;
+
+        private Blocks(final Comparator<? super E> comparator) {
+            this.comparator = comparator;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(final E a, final E b) {
+            return comparator == null ? ((Comparable<? super E>) a).compareTo(b) : comparator.compare(a, b);
+        }
+
+        // Index of the last block starting not after element, or 0
+        @SuppressWarnings("unchecked")
+        private int block(final E element) {
+            int low = 1, high = list.size() - 1, result = 0;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                if (compare((E) list.get(mid).elements[0], element) <= 0) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+
+        private boolean contains(final E element) {
+            return !list.isEmpty() && list.get(block(element)).search(element, comparator) >= 0;
+        }
+
+        // Number of elements less than element
+        private int rank(final E element) {
+            if (list.isEmpty()) {
+                return 0;
+            }
+            final int b = block(element);
+            int rank = 0;
+            for (int i = 0; i < b; i++) {
+                rank += list.get(i).size;
+            }
+            final int i = list.get(b).search(element, comparator);
+            return rank + (i >= 0 ? i : -i - 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        private E last() {
+            if (list.isEmpty()) {
+                return null;
+            }
+            final Block block = list.get(list.size() - 1);
+            return (E) block.elements[block.size - 1];
+        }
+
+        // Greatest element less than the given one, or null
+        @SuppressWarnings("unchecked")
+        private E lower(final E element) {
+            if (list.isEmpty()) {
+                return null;
+            }
+            final int b = block(element);
+            final Block block = list.get(b);
+            final int i = block.search(element, comparator);
+            final int index = (i >= 0 ? i : -i - 1) - 1;
+            if (index >= 0) {
+                return (E) block.elements[index];
+            }
+            return b > 0 ? (E) list.get(b - 1).elements[list.get(b - 1).size - 1] : null;
+        }
+
+        // Adds element greater than all others
+        private void append(final E element) {
+            if (!list.isEmpty() && compare(last(), element) == 0) {
+                return;
+            }
+            if (list.isEmpty() || list.get(list.size() - 1).size == BLOCK_SIZE) {
+                list.add(new Block());
+            }
+            list.get(list.size() - 1).insert(list.get(list.size() - 1).size, element);
+            size++;
+        }
+
+        private boolean add(final E element) {
+            if (list.isEmpty()) {
+                list.add(new Block());
+            }
+            final int b = block(element);
+            Block block = list.get(b);
+            int i = block.search(element, comparator);
+            if (i >= 0) {
+                return false;
+            }
+            i = -i - 1;
+            if (block.size == BLOCK_SIZE) {
+                final Block next = block.split();
+                list.add(b + 1, next);
+                if (i > block.size) {
+                    i -= block.size;
+                    block = next;
+                }
+            }
+            block.insert(i, element);
+            size++;
+            modCount++;
+            return true;
+        }
+
+        private boolean remove(final E element) {
+            if (list.isEmpty()) {
+                return false;
+            }
+            final int b = block(element);
+            final Block block = list.get(b);
+            final int i = block.search(element, comparator);
+            if (i < 0) {
+                return false;
+            }
+            block.remove(i);
+            size--;
+            modCount++;
+            if (block.size == 0) {
+                list.remove(b);
+            } else {
+                merge(b + 1);
+                merge(b);
+            }
+            return true;
+        }
+
+        // Merges block into the previous one if both are at most half full together
+        private void merge(final int b) {
+            if (0 < b && b < list.size() && list.get(b - 1).size + list.get(b).size <= BLOCK_SIZE / 2) {
+                list.get(b - 1).append(list.remove(b));
+            }
+        }
+
+        private void clear() {
+            list.clear();
+            size = 0;
+            modCount++;
+        }
+    }
+
+    private static class Block {
+        private final Object[] elements = new Object[BLOCK_SIZE];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private <E> int search(final E element, final Comparator<? super E> comparator) {
+            return Arrays.binarySearch((E[]) elements, 0, size, element, comparator);
+        }
+
+        private void insert(final int index, final Object element) {
+            System.arraycopy(elements, index, elements, index + 1, size - index);
+            elements[index] = element;
+            size++;
+        }
+
+        private void remove(final int index) {
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+            elements[--size] = null;
+        }
+
+        // Moves upper half into a new block
+        private Block split() {
+            final Block next = new Block();
+            next.size = size / 2;
+            size -= next.size;
+            System.arraycopy(elements, size, next.elements, 0, next.size);
+            Arrays.fill(elements, size, BLOCK_SIZE, null);
+            return next;
+        }
+
+        private void append(final Block block) {
+            System.arraycopy(block.elements, 0, elements, size, block.size);
+            size += block.size;
+        }
+    }
+}
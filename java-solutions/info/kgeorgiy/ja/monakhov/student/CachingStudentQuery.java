@@ -0,0 +1,201 @@
+package info.kgeorgiy.ja.monakhov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentQuery;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link StudentQuery} that caches results of another one in a bounded LRU map.
+ * Entries are keyed by query, argument and collection of students, recognized by identity and size,
+ * and reference the collection weakly; entries of collected collections are dropped on the next call.
+ * Modify collection in place only after {@link #invalidate(Collection)}.
+ * Every call returns a fresh copy of the cached result, as other queries do.
+ */
+public class CachingStudentQuery implements StudentQuery {
+    private final StudentQuery query;
+    private final Map<Key, Object> results;
+    private final ReferenceQueue<Collection<Student>> collected = new ReferenceQueue<>();
+    private long hits;
+    private long misses;
+
+    public CachingStudentQuery(final StudentQuery query, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.query = Objects.requireNonNull(query);
+        results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public List<String> getFirstNames(final List<Student> students) {
+        return cached(Kind.FIRST_NAMES, students, null, () -> query.getFirstNames(students), ArrayList::new);
+    }
+
+    @Override
+    public List<String> getLastNames(final List<Student> students) {
+        return cached(Kind.LAST_NAMES, students, null, () -> query.getLastNames(students), ArrayList::new);
+    }
+
+    @Override
+    public List<GroupName> getGroups(final List<Student> students) {
+        return cached(Kind.GROUPS, students, null, () -> query.getGroups(students), ArrayList::new);
+    }
+
+    @Override
+    public List<String> getFullNames(final List<Student> students) {
+        return cached(Kind.FULL_NAMES, students, null, () -> query.getFullNames(students), ArrayList::new);
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(final List<Student> students) {
+        return cached(Kind.DISTINCT_FIRST_NAMES, students, null, () -> query.getDistinctFirstNames(students), TreeSet::new);
+    }
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        return cached(Kind.MAX_STUDENT_FIRST_NAME, students, null, () -> query.getMaxStudentFirstName(students), Function.identity());
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        return cached(Kind.BY_ID, students, null, () -> query.sortStudentsById(students), ArrayList::new);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        return cached(Kind.BY_NAME, students, null, () -> query.sortStudentsByName(students), ArrayList::new);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        return cached(Kind.BY_FIRST_NAME, students, name, () -> query.findStudentsByFirstName(students, name), ArrayList::new);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        return cached(Kind.BY_LAST_NAME, students, name, () -> query.findStudentsByLastName(students, name), ArrayList::new);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        return cached(Kind.BY_GROUP, students, group, () -> query.findStudentsByGroup(students, group), ArrayList::new);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        return cached(Kind.NAMES_BY_GROUP, students, group, () -> query.findStudentNamesByGroup(students, group), HashMap::new);
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public synchronized void invalidate() {
+        results.clear();
+    }
+
+    /**
+     * Drops cached results for {@code students}, so it may be modified.
+     */
+    public synchronized void invalidate(final Collection<Student> students) {
+        results.keySet().removeIf(key -> key.get() == students);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        purge();
+        return results.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R cached(
+            final Kind kind,
+            final Collection<Student> students,
+            final Object argument,
+            final Supplier<R> query,
+            final Function<R, R> copy
+    ) {
+        final Key key = new Key(kind, students, argument, collected);
+        synchronized (this) {
+            purge();
+            final R result = (R) results.get(key);
+            if (result != null) {
+                hits++;
+                return copy.apply(result);
+            }
+            misses++;
+        }
+        // Computed outside the lock, so concurrent misses may compute the same result twice
+        final R result = query.get();
+        synchronized (this) {
+            results.put(key, result);
+        }
+        return copy.apply(result);
+    }
+
+    // Drops entries of collected collections, whose results still reference students
+    private void purge() {
+        Reference<?> key;
+        while ((key = collected.poll()) != null) {
+            results.remove(key);
+        }
+    }
+
+    private enum Kind {
+        FIRST_NAMES, LAST_NAMES, GROUPS, FULL_NAMES, DISTINCT_FIRST_NAMES, MAX_STUDENT_FIRST_NAME,
+        BY_ID, BY_NAME, BY_FIRST_NAME, BY_LAST_NAME, BY_GROUP, NAMES_BY_GROUP
+    }
+
+    private static class Key extends WeakReference<Collection<Student>> {
+        private final Kind kind;
+        private final int size;
+        private final Object argument;
+        private final int hash;
+
+        private Key(final Kind kind, final Collection<Student> students, final Object argument,
+                    final ReferenceQueue<Collection<Student>> queue) {
+            super(students, queue);
+            this.kind = kind;
+            this.size = students.size();
+            this.argument = argument;
+            hash = Objects.hash(kind, System.identityHashCode(students), size, argument);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            final Collection<Student> students = get();
+            return students != null && students == key.get()
+                    && kind == key.kind && size == key.size && Objects.equals(argument, key.argument);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
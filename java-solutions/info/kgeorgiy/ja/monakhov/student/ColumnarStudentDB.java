@@ -0,0 +1,289 @@
+package info.kgeorgiy.ja.monakhov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentQuery;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * {@link StudentQuery} over columns of a collection of students, built once per collection.
+ * Ids are kept in an {@code int[]}, names and groups are dictionary-encoded into {@code int[]} codes.
+ * Names are numbered in sorted order, so codes compare as the names themselves.
+ * Queries filter and sort row numbers over the columns and materialize only the result
+ * from the collection itself, so no references to students are kept besides the caller's.
+ * Collection is recognized by identity and must not be modified between queries.
+ */
+public class ColumnarStudentDB implements StudentQuery {
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    private final RosterCache<Columns> cache = new RosterCache<>();
+
+    @Override
+    public List<String> getFirstNames(final List<Student> students) {
+        final Columns columns = columns(students);
+        return decode(columns.firstNames, columns.firstNameDictionary);
+    }
+
+    @Override
+    public List<String> getLastNames(final List<Student> students) {
+        final Columns columns = columns(students);
+        return decode(columns.lastNames, columns.lastNameDictionary);
+    }
+
+    @Override
+    public List<GroupName> getGroups(final List<Student> students) {
+        final Columns columns = columns(students);
+        final List<GroupName> groups = new ArrayList<>(columns.size());
+        for (final int group : columns.groups) {
+            groups.add(GROUPS[group]);
+        }
+        return groups;
+    }
+
+    @Override
+    public List<String> getFullNames(final List<Student> students) {
+        final Columns columns = columns(students);
+        final List<String> names = new ArrayList<>(columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            names.add(columns.firstNameDictionary[columns.firstNames[row]] + " " + columns.lastNameDictionary[columns.lastNames[row]]);
+        }
+        return names;
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(final List<Student> students) {
+        final Columns columns = columns(students);
+        final boolean[] used = new boolean[columns.firstNameDictionary.length];
+        for (final int name : columns.firstNames) {
+            used[name] = true;
+        }
+        final Set<String> names = new TreeSet<>();
+        for (int name = 0; name < used.length; name++) {
+            if (used[name]) {
+                names.add(columns.firstNameDictionary[name]);
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        final Columns columns = columns(students);
+        if (columns.size() == 0) {
+            return "";
+        }
+        int max = 0;
+        for (int row = 1; row < columns.size(); row++) {
+            if (columns.ids[row] > columns.ids[max]) {
+                max = row;
+            }
+        }
+        return columns.firstNameDictionary[columns.firstNames[max]];
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        final Columns columns = columns(students);
+        return materialize(students, sort(allRows(columns), columns.size(), idOrder(columns)), columns.size());
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        final Columns columns = columns(students);
+        return materialize(students, sort(allRows(columns), columns.size(), nameOrder(columns)), columns.size());
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        final Columns columns = columns(students);
+        return find(students, columns, columns.firstNames, Arrays.binarySearch(columns.firstNameDictionary, name));
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        final Columns columns = columns(students);
+        return find(students, columns, columns.lastNames, Arrays.binarySearch(columns.lastNameDictionary, name));
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        final Columns columns = columns(students);
+        return find(students, columns, columns.groups, group.ordinal());
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        final Columns columns = columns(students);
+        // Least first name code for every last name code
+        final int[] firstNames = new int[columns.lastNameDictionary.length];
+        Arrays.fill(firstNames, -1);
+        for (int row = 0; row < columns.size(); row++) {
+            if (columns.groups[row] == group.ordinal()) {
+                final int lastName = columns.lastNames[row];
+                if (firstNames[lastName] < 0 || columns.firstNames[row] < firstNames[lastName]) {
+                    firstNames[lastName] = columns.firstNames[row];
+                }
+            }
+        }
+        final Map<String, String> names = new HashMap<>();
+        for (int lastName = 0; lastName < firstNames.length; lastName++) {
+            if (firstNames[lastName] >= 0) {
+                names.put(columns.lastNameDictionary[lastName], columns.firstNameDictionary[firstNames[lastName]]);
+            }
+        }
+        return names;
+    }
+
+    private Columns columns(final Collection<Student> students) {
+        return cache.get(students, Columns::new);
+    }
+
+    private static List<Student> find(final Collection<Student> students, final Columns columns, final int[] column, final int code) {
+        if (code < 0) {
+            return new ArrayList<>();
+        }
+        final int[] rows = new int[columns.size()];
+        int count = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            if (column[row] == code) {
+                rows[count++] = row;
+            }
+        }
+        return materialize(students, sort(rows, count, nameOrder(columns)), count);
+    }
+
+    /**
+     * Returns students at first {@code count} of {@code rows}, in a single pass if collection has no random access.
+     */
+    private static List<Student> materialize(final Collection<Student> students, final int[] rows, final int count) {
+        if (students instanceof List && students instanceof RandomAccess) {
+            final List<Student> list = (List<Student>) students;
+            final List<Student> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(list.get(rows[i]));
+            }
+            return result;
+        }
+
+        // Result positions in order of their rows
+        final int[] positions = new int[count];
+        Arrays.setAll(positions, i -> i);
+        final int[] order = sort(positions, count, (a, b) -> Integer.compare(rows[a], rows[b]));
+        final Student[] result = new Student[count];
+        final Iterator<Student> iterator = students.iterator();
+        int row = 0;
+        Student student = null;
+        for (int i = 0; i < count; i++) {
+            while (row <= rows[order[i]]) {
+                student = iterator.next();
+                row++;
+            }
+            result[order[i]] = student;
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    private static List<String> decode(final int[] codes, final String[] dictionary) {
+        final List<String> strings = new ArrayList<>(codes.length);
+        for (final int code : codes) {
+            strings.add(dictionary[code]);
+        }
+        return strings;
+    }
+
+    private static int[] allRows(final Columns columns) {
+        final int[] rows = new int[columns.size()];
+        Arrays.setAll(rows, row -> row);
+        return rows;
+    }
+
+    private static IntBinaryOperator idOrder(final Columns columns) {
+        return (a, b) -> Integer.compare(columns.ids[a], columns.ids[b]);
+    }
+
+    // StudentDB.NAME_ORDER over codes
+    private static IntBinaryOperator nameOrder(final Columns columns) {
+        return (a, b) -> {
+            final int lastName = Integer.compare(columns.lastNames[b], columns.lastNames[a]);
+            if (lastName != 0) {
+                return lastName;
+            }
+            final int firstName = Integer.compare(columns.firstNames[b], columns.firstNames[a]);
+            return firstName != 0 ? firstName : Integer.compare(columns.ids[a], columns.ids[b]);
+        };
+    }
+
+    /**
+     * Sorts first {@code count} rows with stable bottom-up merge sort, returning array with the result.
+     */
+    private static int[] sort(final int[] rows, final int count, final IntBinaryOperator order) {
+        int[] from = rows, to = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count; low += 2 * width) {
+                final int mid = Math.min(low + width, count), high = Math.min(low + 2 * width, count);
+                int i = low, j = mid, k = low;
+                while (i < mid && j < high) {
+                    to[k++] = order.applyAsInt(from[j], from[i]) < 0 ? from[j++] : from[i++];
+                }
+                System.arraycopy(from, i, to, k, mid - i);
+                System.arraycopy(from, j, to, k + mid - i, high - j);
+            }
+            final int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    private static class Columns {
+        private final int[] ids;
+        private final int[] groups;
+        private final String[] firstNameDictionary;
+        private final int[] firstNames;
+        private final String[] lastNameDictionary;
+        private final int[] lastNames;
+
+        private Columns(final Collection<Student> collection) {
+            final Student[] students = collection.toArray(new Student[0]);
+            ids = new int[students.length];
+            groups = new int[students.length];
+            for (int row = 0; row < students.length; row++) {
+                ids[row] = students[row].getId();
+                groups[row] = students[row].getGroup().ordinal();
+            }
+            firstNameDictionary = dictionary(students, Student::getFirstName);
+            firstNames = encode(students, Student::getFirstName, firstNameDictionary);
+            lastNameDictionary = dictionary(students, Student::getLastName);
+            lastNames = encode(students, Student::getLastName, lastNameDictionary);
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private static String[] dictionary(final Student[] students, final Function<Student, String> column) {
+            final Set<String> values = new HashSet<>();
+            for (final Student student : students) {
+                values.add(column.apply(student));
+            }
+            final String[] dictionary = values.toArray(new String[0]);
+            Arrays.sort(dictionary);
+            return dictionary;
+        }
+
+        private static int[] encode(final Student[] students, final Function<Student, String> column, final String[] dictionary) {
+            final Map<String, Integer> codes = new HashMap<>();
+            for (int code = 0; code < dictionary.length; code++) {
+                codes.put(dictionary[code], code);
+            }
+            final int[] encoded = new int[students.length];
+            for (int row = 0; row < students.length; row++) {
+                encoded[row] = codes.get(column.apply(students[row]));
+            }
+            return encoded;
+        }
+    }
+}
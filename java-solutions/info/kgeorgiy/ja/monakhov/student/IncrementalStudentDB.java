@@ -0,0 +1,197 @@
+package info.kgeorgiy.ja.monakhov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Stateful roster of students that keeps its indexes up to date on every change,
+ * so queries take time proportional to their result.
+ * Queries return the same results as {@link StudentDB} queries on the list of students in order of addition,
+ * with updated students keeping their places. Students are told apart by identity.
+ * Not thread-safe.
+ */
+public class IncrementalStudentDB {
+    private static final Comparator<Entry> ENTRY_ID_ORDER = Entry.order(StudentDB.ID_ORDER);
+    private static final Comparator<Entry> ENTRY_NAME_ORDER = Entry.order(StudentDB.NAME_ORDER);
+
+    private final Map<Student, Entry> entries = new IdentityHashMap<>();
+    private final NavigableSet<Entry> byId = new TreeSet<>(ENTRY_ID_ORDER);
+    private final NavigableSet<Entry> byName = new TreeSet<>(ENTRY_NAME_ORDER);
+    private final Map<GroupName, NavigableSet<Entry>> byGroup = new EnumMap<>(GroupName.class);
+    private final Map<String, NavigableSet<Entry>> byFirstName = new HashMap<>();
+    private final Map<String, NavigableSet<Entry>> byLastName = new HashMap<>();
+    // Counts of first names by last name in every group
+    private final Map<GroupName, Map<String, NavigableMap<String, Integer>>> names = new EnumMap<>(GroupName.class);
+    private long sequence;
+
+    public IncrementalStudentDB() {
+    }
+
+    public IncrementalStudentDB(final Collection<Student> students) {
+        students.forEach(this::add);
+    }
+
+    /**
+     * Adds {@code student} after all others, unless it is already present.
+     */
+    public boolean add(final Student student) {
+        if (entries.containsKey(Objects.requireNonNull(student))) {
+            return false;
+        }
+        insert(new Entry(student, sequence++));
+        return true;
+    }
+
+    public boolean remove(final Student student) {
+        final Entry entry = entries.get(student);
+        if (entry == null) {
+            return false;
+        }
+        delete(entry);
+        return true;
+    }
+
+    /**
+     * Replaces {@code student} with {@code updated} at the same place.
+     *
+     * @throws NoSuchElementException if {@code student} isn't present
+     * @throws IllegalArgumentException if {@code updated} is already present
+     */
+    public void update(final Student student, final Student updated) {
+        final Entry entry = entries.get(student);
+        if (entry == null) {
+            throw new NoSuchElementException("Student isn't present: " + student);
+        }
+        if (student != updated && entries.containsKey(Objects.requireNonNull(updated))) {
+            throw new IllegalArgumentException("Student is already present: " + updated);
+        }
+        delete(entry);
+        insert(new Entry(updated, entry.sequence));
+    }
+
+    public boolean contains(final Student student) {
+        return entries.containsKey(student);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getMaxStudentFirstName() {
+        if (byId.isEmpty()) {
+            return "";
+        }
+        // Stream.max returns the first of equal maximums
+        final Iterator<Entry> iterator = byId.descendingIterator();
+        Entry max = iterator.next();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.student.getId() != max.student.getId()) {
+                break;
+            }
+            max = entry;
+        }
+        return max.student.getFirstName();
+    }
+
+    public List<Student> sortStudentsById() {
+        return students(byId);
+    }
+
+    public List<Student> sortStudentsByName() {
+        return students(byName);
+    }
+
+    public List<Student> findStudentsByFirstName(final String name) {
+        return students(byFirstName.get(name));
+    }
+
+    public List<Student> findStudentsByLastName(final String name) {
+        return students(byLastName.get(name));
+    }
+
+    public List<Student> findStudentsByGroup(final GroupName group) {
+        return students(byGroup.get(group));
+    }
+
+    public Map<String, String> findStudentNamesByGroup(final GroupName group) {
+        final Map<String, String> result = new HashMap<>();
+        names.getOrDefault(group, Map.of()).forEach((lastName, firstNames) -> result.put(lastName, firstNames.firstKey()));
+        return result;
+    }
+
+    private void insert(final Entry entry) {
+        final Student student = entry.student;
+        entries.put(student, entry);
+        byId.add(entry);
+        byName.add(entry);
+        index(byGroup, student.getGroup(), entry);
+        index(byFirstName, student.getFirstName(), entry);
+        index(byLastName, student.getLastName(), entry);
+        names.computeIfAbsent(student.getGroup(), group -> new HashMap<>())
+                .computeIfAbsent(student.getLastName(), lastName -> new TreeMap<>())
+                .merge(student.getFirstName(), 1, Integer::sum);
+    }
+
+    private void delete(final Entry entry) {
+        final Student student = entry.student;
+        entries.remove(student);
+        byId.remove(entry);
+        byName.remove(entry);
+        unindex(byGroup, student.getGroup(), entry);
+        unindex(byFirstName, student.getFirstName(), entry);
+        unindex(byLastName, student.getLastName(), entry);
+
+        final Map<String, NavigableMap<String, Integer>> groupNames = names.get(student.getGroup());
+        final NavigableMap<String, Integer> firstNames = groupNames.get(student.getLastName());
+        firstNames.computeIfPresent(student.getFirstName(), (name, count) -> count == 1 ? null : count - 1);
+        if (firstNames.isEmpty()) {
+            groupNames.remove(student.getLastName());
+            if (groupNames.isEmpty()) {
+                names.remove(student.getGroup());
+            }
+        }
+    }
+
+    private static <K> void index(final Map<K, NavigableSet<Entry>> index, final K key, final Entry entry) {
+        index.computeIfAbsent(key, k -> new TreeSet<>(ENTRY_NAME_ORDER)).add(entry);
+    }
+
+    private static <K> void unindex(final Map<K, NavigableSet<Entry>> index, final K key, final Entry entry) {
+        final NavigableSet<Entry> entries = index.get(key);
+        entries.remove(entry);
+        if (entries.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static List<Student> students(final Collection<Entry> entries) {
+        if (entries == null) {
+            return new ArrayList<>();
+        }
+        final List<Student> students = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            students.add(entry.student);
+        }
+        return students;
+    }
+
+    // Student with its place in the roster, which breaks ties as a stable sort does
+    private static class Entry {
+        private final Student student;
+        private final long sequence;
+
+        private Entry(final Student student, final long sequence) {
+            this.student = student;
+            this.sequence = sequence;
+        }
+
+        private static Comparator<Entry> order(final Comparator<Student> order) {
+            return Comparator.comparing((Function<Entry, Student>) entry -> entry.student, order)
+                    .thenComparingLong(entry -> entry.sequence);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package info.kgeorgiy.ja.monakhov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+
+/**
+ * {@link StudentDB} that builds a {@link StudentIndex} once per collection of students,
+ * so sorting and searching queries on the same collection take time proportional to their result.
+ * Collection is recognized by identity and must not be modified between queries.
+ */
+public class IndexedStudentDB extends StudentDB {
+    private final RosterCache<StudentIndex> indexes = new RosterCache<>();
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        final List<Student> byId = index(students).getById();
+        if (byId.isEmpty()) {
+            return "";
+        }
+        // Stream.max returns the first of equal maximums
+        int i = byId.size() - 1;
+        while (i > 0 && ID_ORDER.compare(byId.get(i - 1), byId.get(i)) == 0) {
+            i--;
+        }
+        return byId.get(i).getFirstName();
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        return new ArrayList<>(index(students).getById());
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        return new ArrayList<>(index(students).getByName());
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        return new ArrayList<>(index(students).getByFirstName(name));
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        return new ArrayList<>(index(students).getByLastName(name));
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        return new ArrayList<>(index(students).getByGroup(group));
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        final Map<String, String> names = new HashMap<>();
+        for (final Student student : index(students).getByGroup(group)) {
+            names.merge(student.getLastName(), student.getFirstName(), BinaryOperator.minBy(String::compareTo));
+        }
+        return names;
+    }
+
+    private StudentIndex index(final Collection<Student> students) {
+        return indexes.get(students, StudentIndex::new);
+    }
+}
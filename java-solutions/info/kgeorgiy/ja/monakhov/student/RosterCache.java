@@ -0,0 +1,26 @@
+package info.kgeorgiy.ja.monakhov.student;
+
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Keeps value computed for the last collection of students, recognized by identity.
+ * The collection is referenced strongly until another one is queried, and must not be modified in between:
+ * changes of its size cause recomputation, other modifications go unnoticed.
+ */
+public class RosterCache<V> {
+    private Collection<Student> students;
+    private int size;
+    private V value;
+
+    public synchronized V get(final Collection<Student> students, final Function<Collection<Student>, V> factory) {
+        if (this.students != students || size != students.size()) {
+            value = factory.apply(students);
+            size = students.size();
+            this.students = students;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,180 @@
+package info.kgeorgiy.ja.monakhov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Set of {@link info.kgeorgiy.java.advanced.student.StudentQuery} queries answered in a single pass over students.
+ * Every query is a {@link Collector}, and {@link #run} feeds each student to all of them at once.
+ * Results are the same as of {@link StudentDB} queries. Same query added twice shares its handle.
+ */
+public class StudentBatch {
+    private final List<Query<?>> queries = new ArrayList<>();
+    private final Map<List<Object>, Query<?>> handles = new HashMap<>();
+
+    public Query<List<String>> firstNames() {
+        return add("firstNames", null, Collectors.mapping(Student::getFirstName, Collectors.toList()));
+    }
+
+    public Query<List<String>> lastNames() {
+        return add("lastNames", null, Collectors.mapping(Student::getLastName, Collectors.toList()));
+    }
+
+    public Query<List<GroupName>> groups() {
+        return add("groups", null, Collectors.mapping(Student::getGroup, Collectors.toList()));
+    }
+
+    public Query<List<String>> fullNames() {
+        return add("fullNames", null, Collectors.mapping(
+                student -> student.getFirstName() + " " + student.getLastName(),
+                Collectors.toList()));
+    }
+
+    public Query<Set<String>> distinctFirstNames() {
+        return add("distinctFirstNames", null, Collectors.mapping(Student::getFirstName, Collectors.toCollection(TreeSet::new)));
+    }
+
+    public Query<String> maxStudentFirstName() {
+        return add("maxStudentFirstName", null, Collectors.collectingAndThen(
+                Collectors.maxBy(StudentDB.ID_ORDER),
+                max -> max.map(Student::getFirstName).orElse("")));
+    }
+
+    public Query<List<Student>> studentsById() {
+        return add("studentsById", null, sorted(StudentDB.ID_ORDER));
+    }
+
+    public Query<List<Student>> studentsByName() {
+        return add("studentsByName", null, sorted(StudentDB.NAME_ORDER));
+    }
+
+    public Query<List<Student>> studentsByFirstName(final String name) {
+        return add("studentsByFirstName", name, filtered(Student::getFirstName, name, sorted(StudentDB.NAME_ORDER)));
+    }
+
+    public Query<List<Student>> studentsByLastName(final String name) {
+        return add("studentsByLastName", name, filtered(Student::getLastName, name, sorted(StudentDB.NAME_ORDER)));
+    }
+
+    public Query<List<Student>> studentsByGroup(final GroupName group) {
+        return add("studentsByGroup", group, filtered(Student::getGroup, group, sorted(StudentDB.NAME_ORDER)));
+    }
+
+    public Query<Map<String, String>> studentNamesByGroup(final GroupName group) {
+        return add("studentNamesByGroup", group, filtered(Student::getGroup, group, Collectors.toMap(
+                Student::getLastName,
+                Student::getFirstName,
+                BinaryOperator.minBy(String::compareTo))));
+    }
+
+    /**
+     * Answers all queries added so far in a single pass over {@code students}.
+     */
+    public Results run(final Collection<Student> students) {
+        final List<Pass<?, ?>> passes = new ArrayList<>(queries.size());
+        for (final Query<?> query : queries) {
+            passes.add(new Pass<>(query.collector));
+        }
+        for (final Student student : students) {
+            for (final Pass<?, ?> pass : passes) {
+                pass.accept(student);
+            }
+        }
+        final Object[] results = new Object[passes.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = passes.get(i).finish();
+        }
+        return new Results(results);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> Query<R> add(final String name, final Object argument, final Collector<Student, ?, R> collector) {
+        return (Query<R>) handles.computeIfAbsent(Arrays.asList(name, argument), key -> {
+            final Query<R> query = new Query<>(this, queries.size(), collector);
+            queries.add(query);
+            return query;
+        });
+    }
+
+    private static Collector<Student, ?, List<Student>> sorted(final Comparator<Student> order) {
+        return Collectors.collectingAndThen(Collectors.toList(), list -> {
+            list.sort(order);
+            return list;
+        });
+    }
+
+    private static <T, R> Collector<Student, ?, R> filtered(
+            final Function<Student, T> field,
+            final T value,
+            final Collector<Student, ?, R> downstream
+    ) {
+        return Collectors.filtering(student -> Objects.equals(field.apply(student), value), downstream);
+    }
+
+    /**
+     * Handle of a query added to a batch.
+     */
+    public static final class Query<R> {
+        private final StudentBatch batch;
+        private final int index;
+        private final Collector<Student, ?, R> collector;
+
+        private Query(final StudentBatch batch, final int index, final Collector<Student, ?, R> collector) {
+            this.batch = batch;
+            this.index = index;
+            this.collector = collector;
+        }
+    }
+
+    /**
+     * Results of a single {@link #run}.
+     */
+    public final class Results {
+        private final Object[] results;
+
+        private Results(final Object[] results) {
+            this.results = results;
+        }
+
+        /**
+         * Returns result of {@code query}.
+         *
+         * @throws IllegalArgumentException if query was added to another batch or after the run
+         */
+        @SuppressWarnings("unchecked")
+        public <R> R get(final Query<R> query) {
+            if (query.batch != StudentBatch.this || query.index >= results.length) {
+                throw new IllegalArgumentException("Query wasn't run in this batch");
+            }
+            return (R) results[query.index];
+        }
+    }
+
+    // Collector state during a run
+    private static class Pass<A, R> {
+        private final Collector<Student, A, R> collector;
+        private final BiConsumer<A, Student> accumulator;
+        private final A container;
+
+        private Pass(final Collector<Student, A, R> collector) {
+            this.collector = collector;
+            accumulator = collector.accumulator();
+            container = collector.supplier().get();
+        }
+
+        private void accept(final Student student) {
+            accumulator.accept(container, student);
+        }
+
+        private R finish() {
+            return collector.finisher().apply(container);
+        }
+    }
+}
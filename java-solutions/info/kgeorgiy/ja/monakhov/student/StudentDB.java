@@ -5,18 +5,38 @@ import info.kgeorgiy.java.advanced.student.Student;
 import info.kgeorgiy.java.advanced.student.StudentQuery;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class StudentDB implements StudentQuery {
-    private static final Comparator<Student> NAME_ORDER = Comparator
+    static final Comparator<Student> NAME_ORDER = Comparator
             .comparing(Student::getLastName, Comparator.reverseOrder())
             .thenComparing(Student::getFirstName, Comparator.reverseOrder())
             .thenComparing(Student::getId);
 
-    private static final Comparator<Student> ID_ORDER = Student::compareTo;
+    static final Comparator<Student> ID_ORDER = Student::compareTo;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public StudentDB() {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates database that runs queries on at least {@code parallelThreshold} students
+     * as parallel streams in {@code pool}. Results are the same as of sequential queries.
+     */
+    public StudentDB(final ForkJoinPool pool, final int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
 
     @Override
     public List<String> getFirstNames(final List<Student> students) {
@@ -46,7 +66,7 @@ public class StudentDB implements StudentQuery {
 
     @Override
     public String getMaxStudentFirstName(final List<Student> students) {
-        return students.stream().max(ID_ORDER).map(Student::getFirstName).orElse("");
+        return query(students, stream -> stream.max(ID_ORDER).map(Student::getFirstName).orElse(""));
     }
 
 
@@ -79,27 +99,196 @@ public class StudentDB implements StudentQuery {
 
     @Override
     public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
-        return students.stream()
+        return query(students, stream -> stream
                 .filter(g -> g.getGroup().equals(group))
                 .collect(Collectors.toMap(
                         Student::getLastName,
                         Student::getFirstName,
-                        BinaryOperator.minBy(String::compareTo)));
+                        BinaryOperator.minBy(String::compareTo))));
+    }
+
+    /**
+     * Returns {@code limit} students starting from {@code offset} in the order of {@link #sortStudentsById},
+     * keeping only {@code offset + limit} students in a bounded heap instead of sorting all of them.
+     */
+    public List<Student> sortStudentsById(final Collection<Student> students, final int offset, final int limit) {
+        return page(students, student -> true, ID_ORDER, offset, limit);
+    }
+
+    public List<Student> sortStudentsByName(final Collection<Student> students, final int offset, final int limit) {
+        return page(students, student -> true, NAME_ORDER, offset, limit);
+    }
+
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name, final int offset, final int limit) {
+        return page(students, matching(Student::getFirstName, name), NAME_ORDER, offset, limit);
+    }
+
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name, final int offset, final int limit) {
+        return page(students, matching(Student::getLastName, name), NAME_ORDER, offset, limit);
+    }
+
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group, final int offset, final int limit) {
+        return page(students, matching(Student::getGroup, group), NAME_ORDER, offset, limit);
+    }
+
+    /**
+     * Returns students in the order of {@link #sortStudentsById} lazily:
+     * students are put into a heap in linear time, and every next one takes logarithmic time.
+     */
+    public Stream<Student> streamStudentsById(final Collection<Student> students) {
+        return lazy(students, student -> true, ID_ORDER);
+    }
+
+    public Stream<Student> streamStudentsByName(final Collection<Student> students) {
+        return lazy(students, student -> true, NAME_ORDER);
+    }
+
+    public Stream<Student> streamStudentsByFirstName(final Collection<Student> students, final String name) {
+        return lazy(students, matching(Student::getFirstName, name), NAME_ORDER);
+    }
+
+    public Stream<Student> streamStudentsByLastName(final Collection<Student> students, final String name) {
+        return lazy(students, matching(Student::getLastName, name), NAME_ORDER);
+    }
+
+    public Stream<Student> streamStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        return lazy(students, matching(Student::getGroup, group), NAME_ORDER);
     }
 
-    private static <T, C extends Collection<T>> C mappedCollection(final Collection<Student> students, final Function<Student, T> mapper, final Supplier<C> collector) {
-        return students.stream().map(mapper).collect(Collectors.toCollection(collector));
+    private <R> R query(final Collection<Student> students, final Function<Stream<Student>, R> query) {
+        if (pool == null || students.size() < parallelThreshold) {
+            return query.apply(students.stream());
+        }
+        // Parallel stream runs in the pool its terminal operation is invoked from
+        return pool.submit(() -> query.apply(students.parallelStream())).join();
     }
 
-    private static <T> List<T> mappedList(final Collection<Student> students, final Function<Student, T> mapper) {
+    private <T, C extends Collection<T>> C mappedCollection(final Collection<Student> students, final Function<Student, T> mapper, final Supplier<C> collector) {
+        return query(students, stream -> stream.map(mapper).collect(Collectors.toCollection(collector)));
+    }
+
+    private <T> List<T> mappedList(final Collection<Student> students, final Function<Student, T> mapper) {
         return mappedCollection(students, mapper, ArrayList::new);
     }
 
-    private static List<Student> sortedList(final Collection<Student> students, final Comparator<Student> comparator) {
-        return students.stream().sorted(comparator).collect(Collectors.toList());
+    private List<Student> sortedList(final Collection<Student> students, final Comparator<Student> comparator) {
+        return query(students, stream -> stream.sorted(comparator).collect(Collectors.toList()));
+    }
+
+    private <T> List<Student> filteredAndSortedList(final Collection<Student> students, final Function<Student, T> filter, final T t) {
+        return query(students, stream -> stream.filter(student -> filter.apply(student).equals(t)).sorted(NAME_ORDER).collect(Collectors.toList()));
+    }
+
+    private static <T> Predicate<Student> matching(final Function<Student, T> field, final T value) {
+        return student -> field.apply(student).equals(value);
+    }
+
+    private static List<Student> page(final Collection<Student> students, final Predicate<Student> filter,
+                                      final Comparator<Student> order, final int offset, final int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must be non-negative");
+        }
+        final int k = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        final Comparator<Ranked> ranked = Ranked.order(order);
+        // The greatest of the least k students on top
+        final PriorityQueue<Ranked> heap = new PriorityQueue<>(ranked.reversed());
+        int index = 0;
+        for (final Student student : students) {
+            if (filter.test(student)) {
+                final Ranked candidate = new Ranked(student, index++);
+                if (heap.size() < k) {
+                    heap.add(candidate);
+                } else if (k > 0 && ranked.compare(candidate, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(candidate);
+                }
+            }
+        }
+
+        final Ranked[] top = heap.toArray(new Ranked[0]);
+        Arrays.sort(top, ranked);
+        final List<Student> result = new ArrayList<>(Math.max(top.length - offset, 0));
+        for (int i = offset; i < top.length; i++) {
+            result.add(top[i].student);
+        }
+        return result;
+    }
+
+    private static Stream<Student> lazy(final Collection<Student> students, final Predicate<Student> filter, final Comparator<Student> order) {
+        final List<Ranked> matching = new ArrayList<>();
+        for (final Student student : students) {
+            if (filter.test(student)) {
+                matching.add(new Ranked(student, matching.size()));
+            }
+        }
+        final HeapIterator iterator = new HeapIterator(matching.toArray(new Ranked[0]), Ranked.order(order));
+        return StreamSupport.stream(Spliterators.spliterator(iterator, matching.size(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
-    private static <T> List<Student> filteredAndSortedList(final Collection<Student> students, final Function<Student, T> filter, final T t) {
-        return students.stream().filter(student -> filter.apply(student).equals(t)).sorted(NAME_ORDER).collect(Collectors.toList());
+    // Student with its position among the matching ones, keeping sorts stable
+    private static class Ranked {
+        private final Student student;
+        private final int index;
+
+        private Ranked(final Student student, final int index) {
+            this.student = student;
+            this.index = index;
+        }
+
+        private static Comparator<Ranked> order(final Comparator<Student> order) {
+            return (a, b) -> {
+                final int cmp = order.compare(a.student, b.student);
+                return cmp != 0 ? cmp : Integer.compare(a.index, b.index);
+            };
+        }
+    }
+
+    private static class HeapIterator implements Iterator<Student> {
+        private final Ranked[] heap;
+        private final Comparator<Ranked> order;
+        private int size;
+
+        private HeapIterator(final Ranked[] heap, final Comparator<Ranked> order) {
+            this.heap = heap;
+            this.order = order;
+            size = heap.length;
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return size > 0;
+        }
+
+        @Override
+        public Student next() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+            final Student next = heap[0].student;
+            heap[0] = heap[--size];
+            heap[size] = null;
+            siftDown(0);
+            return next;
+        }
+
+        private void siftDown(int i) {
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && order.compare(heap[child + 1], heap[child]) < 0) {
+                    child++;
+                }
+                if (order.compare(heap[i], heap[child]) <= 0) {
+                    return;
+                }
+                final Ranked swap = heap[i];
+                heap[i] = heap[child];
+                heap[child] = swap;
+                i = child;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package info.kgeorgiy.ja.monakhov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes of a fixed collection of students.
+ * Students are sorted once by {@link StudentDB#ID_ORDER} and {@link StudentDB#NAME_ORDER},
+ * and hash indexes by group, first and last name keep their students in {@code NAME_ORDER}.
+ */
+public class StudentIndex {
+    private final List<Student> byId;
+    private final List<Student> byName;
+    private final Map<GroupName, List<Student>> byGroup;
+    private final Map<String, List<Student>> byFirstName;
+    private final Map<String, List<Student>> byLastName;
+
+    public StudentIndex(final Collection<Student> students) {
+        final Student[] array = students.toArray(new Student[0]);
+        Arrays.sort(array, StudentDB.ID_ORDER);
+        byId = List.of(array);
+        Arrays.sort(array, StudentDB.NAME_ORDER);
+        byName = List.of(array);
+        byGroup = index(byName, Student::getGroup);
+        byFirstName = index(byName, Student::getFirstName);
+        byLastName = index(byName, Student::getLastName);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public List<Student> getById() {
+        return byId;
+    }
+
+    public List<Student> getByName() {
+        return byName;
+    }
+
+    public List<Student> getByGroup(final GroupName group) {
+        return byGroup.getOrDefault(group, List.of());
+    }
+
+    public List<Student> getByFirstName(final String name) {
+        return byFirstName.getOrDefault(name, List.of());
+    }
+
+    public List<Student> getByLastName(final String name) {
+        return byLastName.getOrDefault(name, List.of());
+    }
+
+    private static <K> Map<K, List<Student>> index(final List<Student> students, final Function<Student, K> key) {
+        final Map<K, List<Student>> index = new HashMap<>();
+        for (final Student student : students) {
+            index.computeIfAbsent(key.apply(student), k -> new ArrayList<>()).add(student);
+        }
+        index.replaceAll((k, list) -> Collections.unmodifiableList(list));
+        return index;
+    }
+}
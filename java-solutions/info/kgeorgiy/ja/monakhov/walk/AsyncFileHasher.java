@@ -0,0 +1,128 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Hashes files with {@link AsynchronousFileChannel}, advancing per-file hash state as each read completes.
+ * Every file in progress holds one read permit and one reused buffer and has one read in flight,
+ * so the number of permits bounds the number of outstanding reads. Buffers are allocated on demand.
+ * Completions are handled by at most one thread per processor, regardless of the number of reads.
+ */
+public class AsyncFileHasher implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Set<OpenOption> OPTIONS = Set.of(StandardOpenOption.READ);
+
+    private final Supplier<? extends FileHasher> hasherFactory;
+    private final Semaphore reads;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final WalkStats stats;
+    // Runs completion handlers, and the reads themselves where the platform has no native asynchronous file I/O
+    private final ExecutorService executor;
+
+    public AsyncFileHasher(final Supplier<? extends FileHasher> hasherFactory, final int maxReads, final WalkStats stats) {
+        this.hasherFactory = hasherFactory;
+        this.stats = stats;
+        reads = new Semaphore(maxReads);
+        executor = Executors.newFixedThreadPool(Math.min(maxReads, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Starts hashing of {@code file}, waiting for a read permit if {@code maxReads} files are already in progress.
+     * Returned future completes exceptionally if the file can't be read.
+     */
+    public CompletableFuture<byte[]> hash(final Path file) throws InterruptedException {
+        reads.acquire();
+        final ByteBuffer buffer = Objects.requireNonNullElseGet(buffers.poll(), () -> ByteBuffer.allocateDirect(BUFFER_SIZE)).clear();
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        try {
+            new Reader(AsynchronousFileChannel.open(file, OPTIONS, executor), buffer, result).read();
+        } catch (final IOException | RuntimeException e) {
+            release(buffer);
+            stats.failed();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private class Reader implements CompletionHandler<Integer, Void> {
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer buffer;
+        private final CompletableFuture<byte[]> result;
+        private final FileHasher hasher = hasherFactory.get();
+        private final long start = System.nanoTime();
+        private long position;
+
+        private Reader(final AsynchronousFileChannel channel, final ByteBuffer buffer, final CompletableFuture<byte[]> result) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.result = result;
+        }
+
+        private void read() {
+            channel.read(buffer, position, null, this);
+        }
+
+        @Override
+        public void completed(final Integer read, final Void attachment) {
+            final byte[] digest;
+            try {
+                if (read != -1) {
+                    position += read;
+                    stats.hashed(read);
+                    hasher.update(buffer.flip());
+                    buffer.clear();
+                    read();
+                    return;
+                }
+                digest = new byte[hasher.length()];
+                hasher.digest(digest, 0);
+            } catch (final RuntimeException e) {
+                failed(e, attachment);
+                return;
+            }
+            finish();
+            result.complete(digest);
+        }
+
+        @Override
+        public void failed(final Throwable exc, final Void attachment) {
+            stats.failed();
+            finish();
+            result.completeExceptionally(exc);
+        }
+
+        private void finish() {
+            stats.getHashLatency().record(System.nanoTime() - start);
+            try {
+                channel.close();
+            } catch (final IOException ignored) {
+            }
+            release(buffer);
+        }
+    }
+
+    private void release(final ByteBuffer buffer) {
+        buffers.add(buffer);
+        reads.release();
+    }
+}
@@ -0,0 +1,50 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Chunks of a single file: consecutive lengths and digests.
+ */
+public class ChunkList {
+    private final int digestLength;
+    private long[] lengths = new long[16];
+    private byte[] digests;
+    private int size;
+
+    public ChunkList(final int digestLength) {
+        this.digestLength = digestLength;
+        digests = new byte[lengths.length * digestLength];
+    }
+
+    /**
+     * Appends chunk of {@code length} bytes, returning offset of its digest in {@link #getDigests()}.
+     */
+    public int add(final long length) {
+        if (size == lengths.length) {
+            lengths = Arrays.copyOf(lengths, size * 2);
+            digests = Arrays.copyOf(digests, size * 2 * digestLength);
+        }
+        lengths[size] = length;
+        return size++ * digestLength;
+    }
+
+    public byte[] getDigests() {
+        return digests;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes {@code <digest> <offset> <length> <name>} line for every chunk.
+     */
+    public void write(final ResultWriter writer, final CharSequence name) throws IOException {
+        long offset = 0;
+        for (int i = 0; i < size; i++) {
+            writer.write(digests, i * digestLength, digestLength, offset, lengths[i], name);
+            offset += lengths[i];
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Hashes whole file with one hasher while splitting it into content-defined chunks
+ * with a gear rolling hash and hashing every chunk with another one, in the same pass over each buffer.
+ * Every finished chunk is fed to both hashers right after the rolling hash scans it, while it is still in cache.
+ */
+public class ChunkingHasher implements FileHasher {
+    public static final int MIN_CHUNK = 2 << 10;
+    public static final int MAX_CHUNK = 64 << 10;
+    // Boundary probability of 2^-13 gives chunks of about 8 KiB after the minimal size
+    private static final long BOUNDARY_MASK = (1L << 13) - 1 << (Long.SIZE - 13);
+
+    private static final long[] GEAR = new SplittableRandom(0x57414C4B).longs(256).toArray();
+
+    private final FileHasher fileHasher;
+    private final FileHasher chunkHasher;
+    private ChunkList chunks;
+    private long fingerprint;
+    private long chunkLength;
+
+    public ChunkingHasher(final FileHasher fileHasher, final FileHasher chunkHasher) {
+        this.fileHasher = fileHasher;
+        this.chunkHasher = chunkHasher;
+        chunks = new ChunkList(chunkHasher.length());
+    }
+
+    @Override
+    public int length() {
+        return fileHasher.length();
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+        final int start = buffer.position();
+        final int limit = buffer.limit();
+        int from = start;
+        long fingerprint = this.fingerprint;
+        long length = chunkLength;
+        for (int i = start; i < limit; i++) {
+            fingerprint = (fingerprint << 1) + GEAR[buffer.get(i) & 0xFF];
+            length++;
+            if (length >= MIN_CHUNK && (fingerprint & BOUNDARY_MASK) == 0 || length >= MAX_CHUNK) {
+                hash(buffer, from, i + 1);
+                addChunk(length);
+                fingerprint = 0;
+                length = 0;
+                from = i + 1;
+            }
+        }
+        hash(buffer, from, limit);
+        this.fingerprint = fingerprint;
+        chunkLength = length;
+    }
+
+    @Override
+    public void digest(final byte[] result, final int offset) {
+        if (chunkLength > 0) {
+            addChunk(chunkLength);
+        }
+        fileHasher.digest(result, offset);
+        fingerprint = 0;
+        chunkLength = 0;
+    }
+
+    private void hash(final ByteBuffer buffer, final int from, final int to) {
+        final int limit = buffer.limit();
+        fileHasher.update(buffer.limit(to).position(from));
+        chunkHasher.update(buffer.position(from));
+        buffer.limit(limit);
+    }
+
+    private void addChunk(final long length) {
+        final int offset = chunks.add(length);
+        chunkHasher.digest(chunks.getDigests(), offset);
+    }
+
+    /**
+     * Returns chunks of the last digested file.
+     */
+    public ChunkList takeChunks() {
+        final ChunkList result = chunks;
+        chunks = new ChunkList(chunkHasher.length());
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        fileHasher.reset();
+        chunkHasher.reset();
+        chunks = new ChunkList(chunkHasher.length());
+        fingerprint = 0;
+        chunkLength = 0;
+    }
+}
@@ -0,0 +1,29 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+public class Crc32cHasher implements FileHasher {
+    private final CRC32C crc = new CRC32C();
+
+    @Override
+    public int length() {
+        return Integer.BYTES;
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+        crc.update(buffer);
+    }
+
+    @Override
+    public void digest(final byte[] result, final int offset) {
+        HashAlgorithm.putBytes(result, offset, crc.getValue(), Integer.BYTES);
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        crc.reset();
+    }
+}
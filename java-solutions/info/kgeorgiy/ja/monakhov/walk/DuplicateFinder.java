@@ -0,0 +1,343 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Finds groups of regular files with equal contents.
+ * Files are grouped by size, then large files by digest of their first and last blocks,
+ * so files of unique size are never read. Files still sharing a group are read in lockstep,
+ * splitting the group as soon as contents differ and hashing every file as it is read,
+ * so each byte is read once and hash collisions aren't reported as duplicates.
+ * Groups are written on {@link #close()} as {@code <hex digest> <name>} lines separated by empty lines.
+ */
+public class DuplicateFinder implements FileSink {
+    private static final int BLOCK = 1 << 12;
+    // Buffers of a group being compared share this many bytes
+    private static final int COMPARE_MEMORY = 1 << 24;
+    private static final int MAX_COMPARE_BLOCK = 1 << 20;
+    // Larger groups reopen their files for every block
+    private static final int MAX_OPEN_FILES = 1 << 8;
+
+    private final ResultWriter writer;
+    private final FileChunkReader reader;
+    private final Supplier<? extends FileHasher> hasherFactory;
+    private final ThreadLocal<FileHasher> hashers;
+    private final WalkStats stats;
+    private final ExecutorService executor;
+    private final Map<Long, List<Candidate>> sizes = new HashMap<>();
+    // The same file may be reached from several input paths
+    private final Set<Path> seen = new HashSet<>();
+    private int count;
+
+    public DuplicateFinder(final ResultWriter writer, final FileChunkReader reader,
+                           final Supplier<? extends FileHasher> hasherFactory, final int threads, final WalkStats stats) {
+        this.writer = writer;
+        this.reader = reader;
+        this.hasherFactory = hasherFactory;
+        this.stats = stats;
+        hashers = ThreadLocal.withInitial(hasherFactory);
+        executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    /**
+     * Remembers {@code file} if it is a regular file. {@code attrs} are required to know its size.
+     */
+    @Override
+    public void submit(final Path file, final String name, final BasicFileAttributes attrs) {
+        stats.visited();
+        if (attrs == null) {
+            stats.failed();
+        } else if (attrs.isRegularFile() && seen.add(file.toAbsolutePath().normalize())) {
+            sizes.computeIfAbsent(attrs.size(), size -> new ArrayList<>()).add(new Candidate(count++, file, name, attrs.size()));
+        }
+    }
+
+    @Override
+    public void fail(final String name) {
+        stats.visited();
+        stats.failed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            final List<List<Candidate>> groups = new ArrayList<>();
+            final List<List<Candidate>> partial = new ArrayList<>();
+            for (final Map.Entry<Long, List<Candidate>> entry : sizes.entrySet()) {
+                if (entry.getValue().size() > 1) {
+                    // Ends of short file cover all of its contents, so they are compared directly
+                    (entry.getKey() <= 2L * BLOCK ? groups : partial).add(entry.getValue());
+                }
+            }
+
+            final List<Supplier<byte[]>> ends = new ArrayList<>();
+            for (final List<Candidate> group : partial) {
+                for (final Candidate candidate : group) {
+                    ends.add(() -> hashEnds(candidate.file));
+                }
+            }
+            final List<byte[]> digests = run(ends);
+            int i = 0;
+            for (final List<Candidate> group : partial) {
+                for (final Candidate candidate : group) {
+                    candidate.digest = digests.get(i++);
+                }
+                groups.addAll(split(group));
+            }
+
+            final List<Supplier<List<List<Candidate>>>> comparisons = new ArrayList<>(groups.size());
+            for (final List<Candidate> group : groups) {
+                comparisons.add(() -> compare(group));
+            }
+            final List<List<Candidate>> duplicates = new ArrayList<>();
+            run(comparisons).forEach(duplicates::addAll);
+
+            duplicates.sort(Comparator.comparingInt(group -> group.get(0).index));
+            for (int j = 0; j < duplicates.size(); j++) {
+                if (j > 0) {
+                    writer.newLine();
+                }
+                for (final Candidate candidate : duplicates.get(j)) {
+                    writer.write(candidate.digest, candidate.name);
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private <R> List<R> run(final List<Supplier<R>> tasks) throws IOException {
+        final List<R> results = new ArrayList<>(tasks.size());
+        if (executor == null) {
+            for (final Supplier<R> task : tasks) {
+                results.add(task.get());
+            }
+            return results;
+        }
+
+        final List<Future<R>> futures = new ArrayList<>(tasks.size());
+        for (final Supplier<R> task : tasks) {
+            futures.add(executor.submit(task::get));
+        }
+        try {
+            for (final Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while searching for duplicates");
+        } catch (final ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        return results;
+    }
+
+    private byte[] hashEnds(final Path file) {
+        final FileHasher hasher = hashers.get();
+        final long start = System.nanoTime();
+        try {
+            reader.readEnds(file, BLOCK, buffer -> {
+                stats.hashed(buffer.remaining());
+                hasher.update(buffer);
+            });
+        } catch (final IOException e) {
+            hasher.reset();
+            stats.failed();
+            return null;
+        } finally {
+            stats.getHashLatency().record(System.nanoTime() - start);
+        }
+        final byte[] digest = new byte[hasher.length()];
+        hasher.digest(digest, 0);
+        return digest;
+    }
+
+    /**
+     * Reads files of equal size in lockstep, splitting them into classes of equal contents
+     * and dropping unreadable files and unique ones. Sets full digests of the remaining files.
+     */
+    private List<List<Candidate>> compare(final List<Candidate> group) {
+        final long size = group.get(0).size;
+        final int block = (int) Math.min(
+                Math.max(BLOCK, Math.min(MAX_COMPARE_BLOCK, COMPARE_MEMORY / group.size())),
+                Math.max(size, 1));
+        final boolean open = group.size() <= MAX_OPEN_FILES;
+        final List<Member> members = new ArrayList<>(group.size());
+        for (final Candidate candidate : group) {
+            members.add(new Member(candidate, block));
+        }
+
+        final long start = System.nanoTime();
+        List<List<Member>> classes = List.of(members);
+        try {
+            for (long position = 0; position < size && !classes.isEmpty(); position += block) {
+                final int length = (int) Math.min(block, size - position);
+                final List<List<Member>> next = new ArrayList<>();
+                for (final List<Member> current : classes) {
+                    final List<Member> read = new ArrayList<>(current.size());
+                    for (final Member member : current) {
+                        if (member.read(position, length, open)) {
+                            read.add(member);
+                        } else {
+                            stats.failed();
+                            member.close();
+                        }
+                    }
+                    next.addAll(splitByContents(read));
+                }
+                classes = next;
+            }
+        } finally {
+            members.forEach(Member::close);
+            stats.getHashLatency().record(System.nanoTime() - start);
+        }
+
+        final List<List<Candidate>> result = new ArrayList<>(classes.size());
+        for (final List<Member> equal : classes) {
+            final List<Candidate> candidates = new ArrayList<>(equal.size());
+            for (final Member member : equal) {
+                member.candidate.digest = new byte[member.hasher.length()];
+                member.hasher.digest(member.candidate.digest, 0);
+                candidates.add(member.candidate);
+            }
+            result.add(candidates);
+        }
+        return result;
+    }
+
+    /**
+     * Splits members by contents of their buffers, dropping unique ones.
+     */
+    private static List<List<Member>> splitByContents(final List<Member> members) {
+        final List<List<Member>> classes = new ArrayList<>();
+        for (final Member member : members) {
+            List<Member> equal = null;
+            for (final List<Member> c : classes) {
+                if (c.get(0).buffer.equals(member.buffer)) {
+                    equal = c;
+                    break;
+                }
+            }
+            if (equal == null) {
+                equal = new ArrayList<>();
+                classes.add(equal);
+            }
+            equal.add(member);
+        }
+        final List<List<Member>> result = new ArrayList<>();
+        for (final List<Member> c : classes) {
+            if (c.size() > 1) {
+                result.add(c);
+            } else {
+                c.get(0).close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits candidates of equal size by their digests, dropping unreadable files and unique ones.
+     */
+    private static List<List<Candidate>> split(final List<Candidate> candidates) {
+        final Map<ByteBuffer, List<Candidate>> groups = new LinkedHashMap<>();
+        for (final Candidate candidate : candidates) {
+            if (candidate.digest != null) {
+                groups.computeIfAbsent(ByteBuffer.wrap(candidate.digest), digest -> new ArrayList<>()).add(candidate);
+            }
+        }
+        final List<List<Candidate>> result = new ArrayList<>();
+        for (final List<Candidate> group : groups.values()) {
+            if (group.size() > 1) {
+                result.add(group);
+            }
+        }
+        return result;
+    }
+
+    private static class Candidate {
+        private final int index;
+        private final Path file;
+        private final String name;
+        private final long size;
+        private byte[] digest;
+
+        private Candidate(final int index, final Path file, final String name, final long size) {
+            this.index = index;
+            this.file = file;
+            this.name = name;
+            this.size = size;
+        }
+    }
+
+    // Candidate being compared: its current block and digest of contents read so far
+    private class Member {
+        private final Candidate candidate;
+        private final ByteBuffer buffer;
+        private final FileHasher hasher = hasherFactory.get();
+        private FileChannel channel;
+
+        private Member(final Candidate candidate, final int block) {
+            this.candidate = candidate;
+            buffer = ByteBuffer.allocate(block);
+        }
+
+        /**
+         * Reads {@code length} bytes at {@code position} into the buffer, keeping file open if {@code open}.
+         */
+        private boolean read(final long position, final int length, final boolean open) {
+            buffer.clear().limit(length);
+            try {
+                if (channel == null) {
+                    channel = FileChannel.open(candidate.file, StandardOpenOption.READ);
+                }
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        // File was truncated
+                        return false;
+                    }
+                }
+            } catch (final IOException e) {
+                return false;
+            } finally {
+                if (!open) {
+                    close();
+                }
+            }
+            stats.hashed(length);
+            hasher.update(buffer.flip());
+            buffer.rewind();
+            return true;
+        }
+
+        private void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (final IOException ignored) {
+                }
+                channel = null;
+            }
+        }
+    }
+}
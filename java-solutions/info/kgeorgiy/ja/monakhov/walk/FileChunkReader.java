@@ -0,0 +1,79 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+public class FileChunkReader {
+    public static final long NEVER_MAP = Long.MAX_VALUE;
+    public static final long DEFAULT_MAP_THRESHOLD = 16L << 20;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Single mapping can't exceed Integer.MAX_VALUE bytes
+    private static final long MAX_MAPPED_REGION = 1L << 30;
+
+    private final long mapThreshold;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+    public FileChunkReader(final long mapThreshold) {
+        this.mapThreshold = mapThreshold;
+    }
+
+    public void read(final Path file, final Consumer<ByteBuffer> consumer) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > 0 && size >= mapThreshold) {
+                map(channel, size, consumer);
+            } else {
+                stream(channel, consumer);
+            }
+        }
+    }
+
+    /**
+     * Passes first and last {@code block} bytes of {@code file} to {@code consumer},
+     * or the whole file if it isn't longer than two blocks.
+     */
+    public void readEnds(final Path file, final int block, final Consumer<ByteBuffer> consumer) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size <= 2L * block) {
+                stream(channel, consumer);
+            } else {
+                read(channel, 0, block, consumer);
+                read(channel, size - block, block, consumer);
+            }
+        }
+    }
+
+    private static void map(final FileChannel channel, final long size, final Consumer<ByteBuffer> consumer) throws IOException {
+        for (long position = 0; position < size; position += MAX_MAPPED_REGION) {
+            consumer.accept(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPED_REGION, size - position)));
+        }
+    }
+
+    private void stream(final FileChannel channel, final Consumer<ByteBuffer> consumer) throws IOException {
+        final ByteBuffer buffer = buffers.get().clear();
+        while (channel.read(buffer) != -1) {
+            consumer.accept(buffer.flip());
+            buffer.clear();
+        }
+    }
+
+    private void read(final FileChannel channel, final long start, final int length, final Consumer<ByteBuffer> consumer) throws IOException {
+        final ByteBuffer buffer = buffers.get();
+        final long end = start + length;
+        for (long position = start; position < end; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            final int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            position += read;
+            consumer.accept(buffer.flip());
+        }
+    }
+}
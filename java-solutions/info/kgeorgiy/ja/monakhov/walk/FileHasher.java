@@ -0,0 +1,22 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.nio.ByteBuffer;
+
+public interface FileHasher {
+    /**
+     * Digest size in bytes.
+     */
+    int length();
+
+    /**
+     * Consumes all remaining bytes of the {@code buffer}.
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * Writes {@link #length()} bytes of digest into {@code result} starting at {@code offset} and resets the hasher.
+     */
+    void digest(byte[] result, int offset);
+
+    void reset();
+}
@@ -0,0 +1,21 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Receives files found by the walk.
+ */
+public interface FileSink extends Closeable {
+    /**
+     * Processes {@code file} printed as {@code name}. {@code attrs} may be {@code null} if they weren't read.
+     */
+    void submit(Path file, String name, BasicFileAttributes attrs) throws IOException;
+
+    /**
+     * Reports file that can't be accessed.
+     */
+    void fail(String name) throws IOException;
+}
@@ -0,0 +1,147 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lists directories on a {@link ForkJoinPool}, one task per directory,
+ * and reports files to the visitor on the calling thread
+ * in the same order as {@link Files#walkFileTree(Path, FileVisitor)}.
+ * Only {@link FileVisitor#visitFile} and {@link FileVisitor#visitFileFailed} are invoked.
+ * At most {@value #LOOKAHEAD} directories per thread are listed ahead of the visitor,
+ * the rest are listed when the visitor reaches them, so memory use doesn't grow with the tree.
+ */
+public class ForkJoinFileWalker implements AutoCloseable {
+    private static final int LOOKAHEAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int lookahead;
+    // Directories started but not yet reached by the visitor
+    private final AtomicInteger ahead = new AtomicInteger();
+
+    public ForkJoinFileWalker(final int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+        lookahead = LOOKAHEAD * parallelism;
+    }
+
+    public void walk(final Path start, final FileVisitor<? super Path> visitor) throws IOException {
+        final Deque<Iterator<Entry>> stack = new ArrayDeque<>();
+        stack.push(List.of(entry(start)).iterator());
+        while (!stack.isEmpty()) {
+            final Iterator<Entry> entries = stack.peek();
+            if (!entries.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            final Entry entry = entries.next();
+            if (entry.directory != null) {
+                if (!entry.directory.started) {
+                    ahead.incrementAndGet();
+                    entry.directory.start();
+                }
+                final List<Entry> children = entry.directory.join();
+                ahead.decrementAndGet();
+                for (final Entry child : children) {
+                    if (child.directory != null && !child.directory.started && tryAcquire()) {
+                        child.directory.start();
+                    }
+                }
+                stack.push(children.iterator());
+            } else if (entry.exception != null) {
+                visitor.visitFileFailed(entry.path, entry.exception);
+            } else {
+                visitor.visitFile(entry.path, entry.attrs);
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        if (ahead.incrementAndGet() <= lookahead) {
+            return true;
+        }
+        ahead.decrementAndGet();
+        return false;
+    }
+
+    private Entry entry(final Path path) {
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (final IOException e) {
+            return new Entry(path, null, e, null);
+        }
+        if (attrs.isDirectory()) {
+            final DirectoryTask task = new DirectoryTask(path);
+            if (tryAcquire()) {
+                task.start();
+            }
+            return new Entry(path, attrs, null, task);
+        }
+        return new Entry(path, attrs, null, null);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private class DirectoryTask extends RecursiveTask<List<Entry>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        // Set before the task is published to the visitor thread, or by that thread
+        private boolean started;
+
+        private DirectoryTask(final Path directory) {
+            this.directory = directory;
+        }
+
+        private void start() {
+            started = true;
+            pool.execute(this);
+        }
+
+        @Override
+        protected List<Entry> compute() {
+            final List<Entry> entries = new ArrayList<>();
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (final Path child : stream) {
+                    entries.add(entry(child));
+                }
+            } catch (final IOException e) {
+                entries.add(new Entry(directory, null, e, null));
+            } catch (final DirectoryIteratorException e) {
+                entries.add(new Entry(directory, null, e.getCause(), null));
+            }
+            return entries;
+        }
+    }
+
+    private static class Entry {
+        private final Path path;
+        private final BasicFileAttributes attrs;
+        private final IOException exception;
+        private final DirectoryTask directory;
+
+        private Entry(final Path path, final BasicFileAttributes attrs, final IOException exception, final DirectoryTask directory) {
+            this.path = path;
+            this.attrs = attrs;
+            this.exception = exception;
+            this.directory = directory;
+        }
+    }
+}
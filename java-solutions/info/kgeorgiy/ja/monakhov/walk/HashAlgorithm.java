@@ -0,0 +1,42 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public enum HashAlgorithm {
+    PJW(PjwHasher::new),
+    XXHASH64(XxHash64Hasher::new),
+    CRC32C(Crc32cHasher::new),
+    SHA256(Sha256Hasher::new);
+
+    private final Supplier<FileHasher> factory;
+
+    HashAlgorithm(final Supplier<FileHasher> factory) {
+        this.factory = factory;
+    }
+
+    public FileHasher newHasher() {
+        return factory.get();
+    }
+
+    public static HashAlgorithm of(final String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown hash algorithm " + name + ", expected one of " + names(), e);
+        }
+    }
+
+    public static String names() {
+        return Arrays.stream(values()).map(a -> a.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining("|"));
+    }
+
+    // Big-endian, so that hex digest matches the number written with %x
+    static void putBytes(final byte[] result, final int offset, final long value, final int length) {
+        for (int i = 0; i < length; i++) {
+            result[offset + i] = (byte) (value >>> (Byte.SIZE * (length - i - 1)));
+        }
+    }
+}
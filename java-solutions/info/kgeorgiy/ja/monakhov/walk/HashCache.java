@@ -0,0 +1,281 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Persistent digest cache keyed by absolute path, size, modification time and file key.
+ *
+ * File layout: header, table of record offsets sorted by path, records.
+ * Record: path length, path, file key length, file key, size, modification time in nanoseconds, digest,
+ * CRC32C of the preceding record bytes.
+ * The file is mapped on open and looked up with binary search, so nothing is parsed on startup.
+ * Malformed file is treated as empty cache, and malformed or corrupted records as misses.
+ */
+public class HashCache {
+    private static final int MAGIC = 0x57484332;
+    private static final int MAX_RECORD = 1 << 16;
+    // Mappings overlap by MAX_RECORD, so every record lies inside a single mapping
+    private static final long REGION = 1L << 30;
+    private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+
+    private final String algorithm;
+    private final int digestLength;
+    private MappedByteBuffer[] regions;
+    private final long tableOffset;
+    private int count;
+    private final List<byte[]> updated = new ArrayList<>();
+
+    private HashCache(final String algorithm, final int digestLength, final MappedByteBuffer[] regions,
+                      final long tableOffset, final int count) {
+        this.algorithm = algorithm;
+        this.digestLength = digestLength;
+        this.regions = regions;
+        this.tableOffset = tableOffset;
+        this.count = count;
+    }
+
+    public static HashCache open(final Path file, final HashAlgorithm algorithm) throws IOException {
+        return open(file, algorithm.name(), algorithm.newHasher().length());
+    }
+
+    public static HashCache open(final Path file, final String algorithm, final int digestLength) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + REGION - 1) / REGION)];
+            for (int i = 0; i < regions.length; i++) {
+                final long position = i * REGION;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION + MAX_RECORD, size - position));
+            }
+
+            final ByteBuffer header = regions.length > 0 ? regions[0].duplicate() : ByteBuffer.allocate(0);
+            if (header.remaining() >= 3 * Integer.BYTES && header.getInt() == MAGIC && header.getInt() == digestLength) {
+                final int nameLength = header.getInt();
+                if (0 <= nameLength && nameLength <= header.remaining() - Integer.BYTES) {
+                    final byte[] name = new byte[nameLength];
+                    header.get(name);
+                    final int count = header.getInt();
+                    final long tableOffset = header.position();
+                    if (algorithm.equals(new String(name, StandardCharsets.UTF_8))
+                            && count >= 0 && tableOffset + (long) count * Long.BYTES <= size) {
+                        return new HashCache(algorithm, digestLength, regions, tableOffset, count);
+                    }
+                }
+            }
+            unmap(regions);
+        } catch (final NoSuchFileException ignored) {
+        } catch (final IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException ignored) {
+            // Malformed cache is treated as empty
+        }
+        return empty(algorithm, digestLength);
+    }
+
+    private static HashCache empty(final String algorithm, final int digestLength) {
+        return new HashCache(algorithm, digestLength, new MappedByteBuffer[0], 0, 0);
+    }
+
+    public byte[] get(final Path file, final BasicFileAttributes attrs) {
+        final byte[] path = pathBytes(file);
+        try {
+            int low = 0, high = count - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final ByteBuffer record = record(read(tableOffset + (long) mid * Long.BYTES).getLong());
+                final int cmp = comparePath(record, path);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    if (!matches(record, attrs)) {
+                        return null;
+                    }
+                    final byte[] digest = digest(record);
+                    final byte[] checksum = new byte[Integer.BYTES];
+                    record.get(checksum);
+                    return Arrays.equals(checksum, checksum(record, record.position() - Integer.BYTES)) ? digest : null;
+                }
+            }
+        } catch (final IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException ignored) {
+            // Corrupted cache is treated as a miss
+        }
+        return null;
+    }
+
+    public synchronized void put(final Path file, final BasicFileAttributes attrs, final byte[] digest) {
+        final byte[] path = pathBytes(file);
+        final byte[] key = fileKey(attrs);
+        final int length = 3 * Integer.BYTES + path.length + key.length + 2 * Long.BYTES + digestLength;
+        if (length <= MAX_RECORD) {
+            final ByteBuffer record = ByteBuffer.allocate(length)
+                    .putInt(path.length).put(path)
+                    .putInt(key.length).put(key)
+                    .putLong(attrs.size())
+                    .putLong(attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS))
+                    .put(digest, 0, digestLength);
+            record.put(checksum(record, length - Integer.BYTES));
+            updated.add(record.array());
+        }
+    }
+
+    /**
+     * Replaces contents of {@code file} with entries {@link #put} since opening.
+     * The opened file is unmapped first, so it can be replaced, and the cache is empty afterwards.
+     * Must not be called concurrently with {@link #get}.
+     */
+    public synchronized void save(final Path file) throws IOException {
+        final MappedByteBuffer[] mapped = regions;
+        regions = new MappedByteBuffer[0];
+        count = 0;
+        unmap(mapped);
+
+        updated.sort(HashCache::compareRecords);
+        final List<byte[]> records = new ArrayList<>(updated.size());
+        for (final byte[] record : updated) {
+            if (records.isEmpty() || compareRecords(records.get(records.size() - 1), record) != 0) {
+                records.add(record);
+            }
+        }
+
+        final byte[] name = algorithm.getBytes(StandardCharsets.UTF_8);
+        final Path directory = file.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(digestLength);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeInt(records.size());
+                long offset = out.size() + (long) records.size() * Long.BYTES;
+                for (final byte[] record : records) {
+                    out.writeLong(offset);
+                    offset += record.length;
+                }
+                for (final byte[] record : records) {
+                    out.write(record);
+                }
+            }
+            copyPermissions(file, temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Temporary file is created accessible to its owner only, while the cache may be shared
+    private static void copyPermissions(final Path from, final Path to) throws IOException {
+        try {
+            Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+        } catch (final NoSuchFileException | UnsupportedOperationException ignored) {
+        }
+    }
+
+    private ByteBuffer read(final long position) {
+        final int region = (int) (position / REGION);
+        return regions[region].duplicate().position((int) (position - region * REGION));
+    }
+
+    private ByteBuffer record(final long position) {
+        final ByteBuffer record = read(position);
+        return record.limit(record.position() + Math.min(record.remaining(), MAX_RECORD)).slice();
+    }
+
+    private static int comparePath(final ByteBuffer record, final byte[] path) {
+        final int length = record.getInt(0);
+        for (int i = 0; i < Math.min(length, path.length); i++) {
+            final int cmp = Integer.compare(record.get(Integer.BYTES + i) & 0xFF, path[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, path.length);
+    }
+
+    private static boolean matches(final ByteBuffer record, final BasicFileAttributes attrs) {
+        record.position(Integer.BYTES + record.getInt(0));
+        final int keyLength = record.getInt();
+        if (keyLength < 0 || keyLength > record.remaining()) {
+            return false;
+        }
+        final byte[] key = new byte[keyLength];
+        record.get(key);
+        return Arrays.equals(key, fileKey(attrs))
+                && record.getLong() == attrs.size()
+                && record.getLong() == attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    private byte[] digest(final ByteBuffer record) {
+        final byte[] digest = new byte[digestLength];
+        record.get(digest);
+        return digest;
+    }
+
+    private static byte[] checksum(final ByteBuffer record, final int length) {
+        final FileHasher hasher = new Crc32cHasher();
+        hasher.update(record.duplicate().position(0).limit(length));
+        final byte[] checksum = new byte[hasher.length()];
+        hasher.digest(checksum, 0);
+        return checksum;
+    }
+
+    private static int compareRecords(final byte[] a, final byte[] b) {
+        return Arrays.compareUnsigned(
+                a, Integer.BYTES, Integer.BYTES + ByteBuffer.wrap(a).getInt(),
+                b, Integer.BYTES, Integer.BYTES + ByteBuffer.wrap(b).getInt());
+    }
+
+    private static void unmap(final MappedByteBuffer[] regions) {
+        for (final MappedByteBuffer region : regions) {
+            UNMAPPER.accept(region);
+        }
+    }
+
+    // Mapped file can't be replaced on Windows until it is unmapped, which has no public API
+    private static Consumer<ByteBuffer> unmapper() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            final Object unsafe = field.get(null);
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            return buffer -> {
+                try {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } catch (final ReflectiveOperationException ignored) {
+                    // Mapping is released by garbage collector
+                }
+            };
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return buffer -> {};
+        }
+    }
+
+    private static byte[] pathBytes(final Path file) {
+        return file.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] fileKey(final BasicFileAttributes attrs) {
+        return Objects.toString(attrs.fileKey(), "").getBytes(StandardCharsets.UTF_8);
+    }
+}
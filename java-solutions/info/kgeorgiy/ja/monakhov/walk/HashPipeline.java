@@ -0,0 +1,205 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class HashPipeline implements FileSink {
+    // Files hashed ahead of the writer per worker
+    private static final int WINDOW_PER_THREAD = 64;
+
+    private final ResultWriter writer;
+    private final ResultWriter manifest;
+    private final FileChunkReader reader;
+    private final ThreadLocal<FileHasher> hashers;
+    private final byte[] failed;
+    // Digest of the last file hashed on the calling thread
+    private final byte[] digest;
+    private final HashCache cache;
+    private final WalkStats stats;
+    private final ExecutorService executor;
+    private final AsyncFileHasher async;
+    private final Queue<Result> pending = new ArrayDeque<>();
+    private final int window;
+
+    /**
+     * Creates pipeline writing results to {@code writer}.
+     * If {@code manifest} is not {@code null}, files are split into content-defined chunks,
+     * which are written to it after the results of every file.
+     */
+    public HashPipeline(final ResultWriter writer, final ResultWriter manifest, final FileChunkReader reader,
+                        final Supplier<? extends FileHasher> hasherFactory, final int threads,
+                        final int asyncReads, final HashCache cache, final WalkStats stats) {
+        if (manifest != null && asyncReads > 0) {
+            throw new IllegalArgumentException("Chunk manifest isn't supported in asynchronous mode");
+        }
+        this.writer = writer;
+        this.manifest = manifest;
+        this.reader = reader;
+        this.cache = cache;
+        this.stats = stats;
+        hashers = ThreadLocal.withInitial(manifest == null
+                ? hasherFactory
+                : () -> new ChunkingHasher(hasherFactory.get(), hasherFactory.get()));
+        failed = new byte[hashers.get().length()];
+        digest = new byte[failed.length];
+        async = asyncReads > 0 ? new AsyncFileHasher(hasherFactory, asyncReads, stats) : null;
+        executor = async == null && threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        window = Math.max(threads, asyncReads) * WINDOW_PER_THREAD;
+    }
+
+    public void submit(final Path file, final String name) throws IOException {
+        submit(file, name, null);
+    }
+
+    /**
+     * Hashes {@code file}, or takes its digest from cache when {@code attrs} are known.
+     */
+    @Override
+    public void submit(final Path file, final String name, final BasicFileAttributes attrs) throws IOException {
+        stats.visited();
+        // Cache doesn't keep chunks
+        final byte[] cached = cache != null && attrs != null && manifest == null ? cached(file, attrs) : null;
+        if (cached != null) {
+            complete(cached, name, file, attrs);
+        } else if (async != null) {
+            try {
+                enqueue(new Result(async.hash(file).exceptionally(e -> failed), name, file, attrs));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while hashing " + name);
+            }
+        } else if (executor == null) {
+            final byte[] hash = hash(file, digest);
+            write(hash, name, file, attrs, chunks());
+        } else {
+            final Result result = new Result(null, name, file, attrs);
+            result.hash = executor.submit(() -> {
+                final byte[] hash = hash(file, new byte[failed.length]);
+                result.chunks = chunks();
+                return hash;
+            });
+            enqueue(result);
+        }
+    }
+
+    @Override
+    public void fail(final String name) throws IOException {
+        stats.visited();
+        stats.failed();
+        complete(failed, name, null, null);
+    }
+
+    private byte[] cached(final Path file, final BasicFileAttributes attrs) {
+        final long start = System.nanoTime();
+        try {
+            return cache.get(file, attrs);
+        } finally {
+            stats.getCacheLatency().record(System.nanoTime() - start);
+        }
+    }
+
+    private void complete(final byte[] hash, final String name, final Path file, final BasicFileAttributes attrs) throws IOException {
+        if (pending.isEmpty()) {
+            write(hash, name, file, attrs, null);
+        } else {
+            enqueue(new Result(CompletableFuture.completedFuture(hash), name, file, attrs));
+        }
+    }
+
+    private void enqueue(final Result result) throws IOException {
+        pending.add(result);
+        while (pending.size() > window || !pending.isEmpty() && pending.peek().hash.isDone()) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        final Result result = pending.remove();
+        try {
+            write(result.hash.get(), result.name, result.file, result.attrs, result.chunks);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing " + result.name);
+        } catch (final ExecutionException e) {
+            throw new IOException("Unable to hash " + result.name + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void write(final byte[] hash, final String name, final Path file, final BasicFileAttributes attrs,
+                       final ChunkList chunks) throws IOException {
+        if (cache != null && attrs != null && hash != failed) {
+            cache.put(file, attrs, hash);
+        }
+        final long start = System.nanoTime();
+        writer.write(hash, name);
+        if (chunks != null) {
+            chunks.write(manifest, name);
+        }
+        stats.getWriteLatency().record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            if (async != null) {
+                async.close();
+            }
+        }
+    }
+
+    private byte[] hash(final Path file, final byte[] result) {
+        final FileHasher hasher = hashers.get();
+        final long start = System.nanoTime();
+        try {
+            reader.read(file, buffer -> {
+                stats.hashed(buffer.remaining());
+                hasher.update(buffer);
+            });
+        } catch (final IOException e) {
+            hasher.reset();
+            stats.failed();
+            return failed;
+        } finally {
+            stats.getHashLatency().record(System.nanoTime() - start);
+        }
+        hasher.digest(result, 0);
+        return result;
+    }
+
+    private ChunkList chunks() {
+        return manifest == null ? null : ((ChunkingHasher) hashers.get()).takeChunks();
+    }
+
+    private static class Result {
+        private Future<byte[]> hash;
+        private final String name;
+        private final Path file;
+        private final BasicFileAttributes attrs;
+        // Set by the hashing task before completion of hash
+        private ChunkList chunks;
+
+        public Result(final Future<byte[]> hash, final String name, final Path file, final BasicFileAttributes attrs) {
+            this.hash = hash;
+            this.name = name;
+            this.file = file;
+            this.attrs = attrs;
+        }
+    }
+}
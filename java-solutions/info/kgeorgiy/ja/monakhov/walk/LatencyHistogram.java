@@ -0,0 +1,58 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of latencies with power of two buckets.
+ * Percentiles are reported as upper bounds of the corresponding buckets.
+ */
+public class LatencyHistogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+
+    public void record(final long nanos) {
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0)));
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    public long getP50Micros() {
+        return percentile(0.5);
+    }
+
+    public long getP90Micros() {
+        return percentile(0.9);
+    }
+
+    public long getP99Micros() {
+        return percentile(0.99);
+    }
+
+    public long getMaxMicros() {
+        return percentile(1);
+    }
+
+    private long percentile(final double p) {
+        final long count = getCount();
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen > 0 && seen >= p * count) {
+                return TimeUnit.NANOSECONDS.toMicros(i == Long.SIZE ? Long.MAX_VALUE : 1L << i);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d p50<=%dus p90<=%dus p99<=%dus max<=%dus",
+                getCount(), getP50Micros(), getP90Micros(), getP99Micros(), getMaxMicros());
+    }
+}
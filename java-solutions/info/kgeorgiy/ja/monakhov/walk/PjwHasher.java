@@ -0,0 +1,38 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.nio.ByteBuffer;
+
+public class PjwHasher implements FileHasher {
+    private static final long HIGH_BITS = 0xFF00000000000000L;
+    private long hash;
+
+    @Override
+    public int length() {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+        long hash = this.hash;
+        while (buffer.hasRemaining()) {
+            hash = (hash << 8) + (buffer.get() & 0xff);
+            final long high = hash & HIGH_BITS;
+            if (high != 0) {
+                hash ^= high >> 48;
+                hash &= ~high;
+            }
+        }
+        this.hash = hash;
+    }
+
+    @Override
+    public void digest(final byte[] result, final int offset) {
+        HashAlgorithm.putBytes(result, offset, hash, Long.BYTES);
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        hash = 0;
+    }
+}
@@ -1,33 +1,30 @@
 package info.kgeorgiy.ja.monakhov.walk;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class RecursiveWalk {
-    private final String inputFileName;
-    private final String outputFileName;
+    private final WalkOptions options;
     private String fileTitle;
 
-    private RecursiveWalk(final String inputFileName, final String outputFileName) {
-        this.inputFileName = inputFileName;
-        this.outputFileName = outputFileName;
+    private RecursiveWalk(final WalkOptions options) {
+        this.options = options;
     }
 
     public static void main(final String[] args) {
         if (args == null) {
             System.err.println("You must pass arguments to program");
-        } else if (args.length != 2) {
-            System.err.println("Arguments size must be 2");
-        } else if (args[0] == null || args[1] == null) {
+        } else if (Arrays.stream(args).anyMatch(Objects::isNull)) {
             System.err.println("Arguments can't be null");
         } else {
             try {
-                new RecursiveWalk(args[0], args[1]).walk();
+                new RecursiveWalk(WalkOptions.parse(args)).walk();
             } catch (final WalkException e) {
                 System.err.println(e.getMessage());
             }
@@ -35,13 +32,17 @@ public class RecursiveWalk {
     }
 
     private void walk() throws WalkException {
-        final Path inputFilePath, outputFilePath;
+        final Path inputFilePath, outputFilePath, cacheFilePath, chunksFilePath;
 
         setFileTitle("input file");
         try {
-            inputFilePath = Path.of(inputFileName);
+            inputFilePath = Path.of(options.getInputFileName());
             setFileTitle("output file");
-            outputFilePath = Path.of(outputFileName);
+            outputFilePath = Path.of(options.getOutputFileName());
+            setFileTitle("cache file");
+            cacheFilePath = options.getCacheFileName() == null ? null : Path.of(options.getCacheFileName());
+            setFileTitle("chunks file");
+            chunksFilePath = options.getChunksFileName() == null ? null : Path.of(options.getChunksFileName());
         } catch (final InvalidPathException e) {
             throw new WalkException("Unsupported symbol in path to " + fileTitle, e);
         }
@@ -54,24 +55,55 @@ public class RecursiveWalk {
             }
         }
 
-        try (final BufferedWriter outputFileWriter = Files.newBufferedWriter(outputFilePath)) {
+        final HashCache cache;
+        try {
+            cache = cacheFilePath == null ? null : HashCache.open(cacheFilePath, options.getHashAlgorithm());
+        } catch (final IOException e) {
+            throw new WalkException("Unable to open cache file: " + e.getMessage(), e);
+        }
+
+        final WalkStats stats = new WalkStats();
+        final WalkMonitor monitor = new WalkMonitor(stats, options.getProgressSeconds());
+        try (final ResultWriter outputFileWriter = new ResultWriter(outputFilePath);
+             final ResultWriter chunksFileWriter = chunksFilePath == null ? null : new ResultWriter(chunksFilePath);
+             final FileSink sink = options.isDuplicates()
+                     ? new DuplicateFinder(outputFileWriter, new FileChunkReader(options.getMapThreshold()),
+                             options.getHashAlgorithm()::newHasher, options.getThreads(), stats)
+                     : new HashPipeline(outputFileWriter, chunksFileWriter,
+                             new FileChunkReader(options.getMapThreshold()),
+                             options.getHashAlgorithm()::newHasher, options.getThreads(), options.getAsyncReads(), cache, stats);
+             final ForkJoinFileWalker walker = options.getWalkers() > 0 ? new ForkJoinFileWalker(options.getWalkers()) : null) {
             setFileTitle("input file");
             try (final BufferedReader inputFileReader = Files.newBufferedReader(inputFilePath)) {
                 String path;
-                FileVisitor<Path> fileVisitor = new WalkFileVisitor(outputFileWriter);
+                FileVisitor<Path> fileVisitor = new WalkFileVisitor(sink);
                 while ((path = inputFileReader.readLine()) != null) {
                     setFileTitle("output file");
                     try {
-                        Files.walkFileTree(Path.of(path), fileVisitor);
+                        if (walker != null) {
+                            walker.walk(Path.of(path), fileVisitor);
+                        } else {
+                            Files.walkFileTree(Path.of(path), fileVisitor);
+                        }
                     } catch (InvalidPathException e) {
-                        outputFileWriter.write(String.format("%016x", 0) + " " + path);
-                        outputFileWriter.newLine();
+                        sink.fail(path);
                     }
                     setFileTitle("input file");
                 }
             }
+            setFileTitle("output file");
         } catch (final IOException e) {
             throw new WalkException("Some errors occurred while processing " + fileTitle + ": " + e.getMessage(), e);
+        } finally {
+            monitor.close();
+        }
+
+        if (cache != null) {
+            try {
+                cache.save(cacheFilePath);
+            } catch (final IOException e) {
+                throw new WalkException("Unable to save cache file: " + e.getMessage(), e);
+            }
         }
     }
 
@@ -0,0 +1,117 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes {@code <hex digest> <name>} lines in UTF-8 through a reusable direct buffer without per-line allocations.
+ */
+public class ResultWriter implements Closeable {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int DECIMAL_LENGTH = String.valueOf(Long.MAX_VALUE).length();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public ResultWriter(final Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    public void write(final byte[] hash, final CharSequence name) throws IOException {
+        putHex(hash, 0, hash.length);
+        putText(name);
+        newLine();
+    }
+
+    /**
+     * Writes {@code <hex digest> <offset> <length> <name>} line.
+     */
+    public void write(final byte[] hash, final int hashOffset, final int hashLength,
+                      final long offset, final long length, final CharSequence name) throws IOException {
+        putHex(hash, hashOffset, hashLength);
+        putDecimal(offset);
+        putDecimal(length);
+        putText(name);
+        newLine();
+    }
+
+    private void putHex(final byte[] hash, final int offset, final int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            ensure(2);
+            buffer.put(HEX[(hash[i] >> 4) & 0xF]).put(HEX[hash[i] & 0xF]);
+        }
+    }
+
+    private void putDecimal(final long value) throws IOException {
+        ensure(DECIMAL_LENGTH + 1);
+        buffer.put((byte) ' ');
+        long power = 1;
+        while (power <= value / 10) {
+            power *= 10;
+        }
+        for (; power > 0; power /= 10) {
+            buffer.put((byte) ('0' + value / power % 10));
+        }
+    }
+
+    private void putText(final CharSequence name) throws IOException {
+        ensure(1);
+        buffer.put((byte) ' ');
+
+        final int length = name.length();
+        for (int i = 0; i < length; i++) {
+            ensure(4);
+            final char c = name.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(name.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, name.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18))
+                        .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                        .put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    public void newLine() throws IOException {
+        ensure(LINE_SEPARATOR.length);
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    private void ensure(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class Sha256Hasher implements FileHasher {
+    private final MessageDigest digest;
+
+    public Sha256Hasher() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform must support SHA-256
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    public int length() {
+        return digest.getDigestLength();
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+        digest.update(buffer);
+    }
+
+    @Override
+    public void digest(final byte[] result, final int offset) {
+        try {
+            digest.digest(result, offset, length());
+        } catch (final DigestException e) {
+            throw new IllegalArgumentException("Not enough space for digest", e);
+        }
+    }
+
+    @Override
+    public void reset() {
+        digest.reset();
+    }
+}
@@ -2,33 +2,30 @@ package info.kgeorgiy.ja.monakhov.walk;
 
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class Walk {
-    private final String inputFileName;
-    private final String outputFileName;
+    private final WalkOptions options;
     private String fileTitle;
 
-    private Walk(final String inputFileName, final String outputFileName) {
-        this.inputFileName = inputFileName;
-        this.outputFileName = outputFileName;
+    private Walk(final WalkOptions options) {
+        this.options = options;
     }
 
     public static void main(final String[] args) {
         if (args == null) {
             System.err.println("You must pass arguments to program");
-        } else if (args.length != 2) {
-            System.err.println("Arguments size must be 2");
-        } else if (args[0] == null || args[1] == null) {
+        } else if (Arrays.stream(args).anyMatch(Objects::isNull)) {
             System.err.println("Arguments can't be null");
         } else {
             try {
-                new Walk(args[0], args[1]).walk();
+                new Walk(WalkOptions.parse(args)).walk();
             } catch (final WalkException e) {
                 System.err.println(e.getMessage());
             }
@@ -36,15 +33,19 @@ public class Walk {
     }
 
     private void walk() throws WalkException {
-        final Path inputFilePath, outputFilePath;
+        final Path inputFilePath, outputFilePath, cacheFilePath, chunksFilePath;
 
         // :NOTE: Функция
         setFileTitle("input file");
         try {
 //            inputFilePath = path(inputFileName, "input file");
-            inputFilePath = Path.of(inputFileName);
+            inputFilePath = Path.of(options.getInputFileName());
             setFileTitle("output file");
-            outputFilePath = Path.of(outputFileName);
+            outputFilePath = Path.of(options.getOutputFileName());
+            setFileTitle("cache file");
+            cacheFilePath = options.getCacheFileName() == null ? null : Path.of(options.getCacheFileName());
+            setFileTitle("chunks file");
+            chunksFilePath = options.getChunksFileName() == null ? null : Path.of(options.getChunksFileName());
         } catch (final InvalidPathException e) {
             throw new WalkException("Unsupported symbol in path to " + fileTitle, e);
         }
@@ -57,19 +58,50 @@ public class Walk {
             }
         }
 
-        try (final BufferedWriter outputFileWriter = Files.newBufferedWriter(outputFilePath)) {
+        final HashCache cache;
+        try {
+            cache = cacheFilePath == null ? null : HashCache.open(cacheFilePath, options.getHashAlgorithm());
+        } catch (final IOException e) {
+            throw new WalkException("Unable to open cache file: " + e.getMessage(), e);
+        }
+
+        final WalkStats stats = new WalkStats();
+        final WalkMonitor monitor = new WalkMonitor(stats, options.getProgressSeconds());
+        try (final ResultWriter outputFileWriter = new ResultWriter(outputFilePath);
+             final ResultWriter chunksFileWriter = chunksFilePath == null ? null : new ResultWriter(chunksFilePath);
+             final FileSink sink = options.isDuplicates()
+                     ? new DuplicateFinder(outputFileWriter, new FileChunkReader(options.getMapThreshold()),
+                             options.getHashAlgorithm()::newHasher, options.getThreads(), stats)
+                     : new HashPipeline(outputFileWriter, chunksFileWriter,
+                             new FileChunkReader(options.getMapThreshold()),
+                             options.getHashAlgorithm()::newHasher, options.getThreads(), options.getAsyncReads(), cache, stats)) {
             setFileTitle("input file");
             try (final BufferedReader inputFileReader = Files.newBufferedReader(inputFilePath)) {
                 String fileName;
                 while ((fileName = inputFileReader.readLine()) != null) {
                     setFileTitle("output file");
-                    outputFileWriter.write(getHash(fileName) + " " + fileName);
-                    outputFileWriter.newLine();
+                    try {
+                        final Path file = Path.of(fileName);
+                        sink.submit(file, fileName, cache == null && !options.isDuplicates() ? null : attributes(file));
+                    } catch (final InvalidPathException e) {
+                        sink.fail(fileName);
+                    }
                     setFileTitle("input file");
                 }
             }
+            setFileTitle("output file");
         } catch (final IOException e) {
             throw new WalkException("Unable to process " + fileTitle + ": " + e.getMessage(), e);
+        } finally {
+            monitor.close();
+        }
+
+        if (cache != null) {
+            try {
+                cache.save(cacheFilePath);
+            } catch (final IOException e) {
+                throw new WalkException("Unable to save cache file: " + e.getMessage(), e);
+            }
         }
     }
 
@@ -77,26 +109,11 @@ public class Walk {
         fileTitle = file;
     }
 
-    private static String getHash(final String fileName) {
-        final byte[] buff = new byte[4096];
-        long hash = 0;
-        final long highBits = 0xFF00000000000000L;
-
-        try (final InputStream fileReader = Files.newInputStream(Path.of(fileName))) {
-            int amn;
-            while ((amn = fileReader.read(buff)) != -1) {
-                for (int i = 0; i < amn; i++) {
-                    hash = (hash << 8) + (buff[i] & 0xff);
-                    final long high = hash & highBits;
-                    if (high != 0) {
-                        hash ^= high >> 48;
-                        hash &= ~high;
-                    }
-                }
-            }
-        } catch (final IOException | InvalidPathException e) {
-            hash = 0;
+    private static BasicFileAttributes attributes(final Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final IOException e) {
+            return null;
         }
-        return String.format("%016x", hash);
     }
-}
\ No newline at end of file
+}
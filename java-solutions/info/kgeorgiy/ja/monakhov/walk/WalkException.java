@@ -3,6 +3,10 @@ package info.kgeorgiy.ja.monakhov.walk;
 import java.io.IOException;
 
 public class WalkException extends Exception {
+    public WalkException(String message) {
+        super(message);
+    }
+
     public WalkException(String message, Throwable cause) {
         super(message, cause);
     }
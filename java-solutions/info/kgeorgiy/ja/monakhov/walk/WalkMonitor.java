@@ -0,0 +1,73 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link WalkStats} as a platform MBean and optionally reports them to {@link System#err}.
+ */
+public class WalkMonitor implements AutoCloseable {
+    public static final String OBJECT_NAME = "info.kgeorgiy.ja.monakhov.walk:type=WalkStats";
+
+    private final WalkStats stats;
+    private final ScheduledExecutorService scheduler;
+    private final ObjectName name;
+    private final boolean report;
+
+    /**
+     * Creates monitor reporting to {@link System#err} every {@code reportSeconds}, or never if it is {@code 0}.
+     */
+    public WalkMonitor(final WalkStats stats, final long reportSeconds) {
+        this.stats = stats;
+        report = reportSeconds > 0;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "walk-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(stats::sample, 1, 1, TimeUnit.SECONDS);
+        if (report) {
+            scheduler.scheduleAtFixedRate(this::report, reportSeconds, reportSeconds, TimeUnit.SECONDS);
+        }
+        name = register(stats);
+    }
+
+    private static ObjectName register(final WalkStats stats) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            server.registerMBean(stats, name);
+            return name;
+        } catch (final JMException e) {
+            // Another walk in this JVM owns the name
+            return null;
+        }
+    }
+
+    private void report() {
+        System.err.println("Walk progress: " + stats);
+        System.err.println("    cache: " + stats.getCacheLatency());
+        System.err.println("    hash:  " + stats.getHashLatency());
+        System.err.println("    write: " + stats.getWriteLatency());
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        if (report) {
+            stats.sample();
+            report();
+        }
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (final JMException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WalkOptions {
+    private static final String USAGE = "Usage: <input file> <output file> [--threads N] [--map-threshold BYTES] " +
+            "[--hash " + HashAlgorithm.names() + "] [--cache FILE] [--walkers N] [--async READS] [--progress SECONDS] [--chunks FILE] [--duplicates]";
+    // Parallelism limit of ForkJoinPool
+    private static final int MAX_WALKERS = 0x7fff;
+    private static final int MAX_ASYNC_READS = 1 << 16;
+
+    private final String inputFileName;
+    private final String outputFileName;
+    private final int threads;
+    private final long mapThreshold;
+    private final HashAlgorithm hashAlgorithm;
+    private final String cacheFileName;
+    private final int walkers;
+    private final int asyncReads;
+    private final int progressSeconds;
+    private final String chunksFileName;
+    private final boolean duplicates;
+
+    private WalkOptions(final String inputFileName, final String outputFileName, final int threads,
+                        final long mapThreshold, final HashAlgorithm hashAlgorithm, final String cacheFileName,
+                        final int walkers, final int asyncReads, final int progressSeconds,
+                        final String chunksFileName, final boolean duplicates) {
+        this.inputFileName = inputFileName;
+        this.outputFileName = outputFileName;
+        this.threads = threads;
+        this.mapThreshold = mapThreshold;
+        this.hashAlgorithm = hashAlgorithm;
+        this.cacheFileName = cacheFileName;
+        this.walkers = walkers;
+        this.asyncReads = asyncReads;
+        this.progressSeconds = progressSeconds;
+        this.chunksFileName = chunksFileName;
+        this.duplicates = duplicates;
+    }
+
+    public static WalkOptions parse(final String[] args) throws WalkException {
+        final List<String> files = new ArrayList<>();
+        int threads = 1;
+        long mapThreshold = FileChunkReader.DEFAULT_MAP_THRESHOLD;
+        HashAlgorithm hashAlgorithm = HashAlgorithm.PJW;
+        String cacheFileName = null;
+        int walkers = 0;
+        int asyncReads = 0;
+        int progressSeconds = 0;
+        String chunksFileName = null;
+        boolean duplicates = false;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = (int) parse(args, ++i, 1, Integer.MAX_VALUE);
+            } else if (args[i].equals("--map-threshold")) {
+                mapThreshold = parse(args, ++i, 0, Long.MAX_VALUE);
+            } else if (args[i].equals("--hash")) {
+                try {
+                    hashAlgorithm = HashAlgorithm.of(value(args, ++i));
+                } catch (final IllegalArgumentException e) {
+                    throw new WalkException(e.getMessage());
+                }
+            } else if (args[i].equals("--cache")) {
+                cacheFileName = value(args, ++i);
+            } else if (args[i].equals("--walkers")) {
+                walkers = (int) parse(args, ++i, 0, MAX_WALKERS);
+            } else if (args[i].equals("--async")) {
+                asyncReads = (int) parse(args, ++i, 0, MAX_ASYNC_READS);
+            } else if (args[i].equals("--progress")) {
+                progressSeconds = (int) parse(args, ++i, 0, Integer.MAX_VALUE);
+            } else if (args[i].equals("--chunks")) {
+                chunksFileName = value(args, ++i);
+            } else if (args[i].equals("--duplicates")) {
+                duplicates = true;
+            } else if (args[i].startsWith("--")) {
+                throw new WalkException("Unknown option " + args[i] + ". " + USAGE);
+            } else {
+                files.add(args[i]);
+            }
+        }
+
+        if (files.size() != 2) {
+            throw new WalkException("You must pass input and output files. " + USAGE);
+        }
+        if (chunksFileName != null && asyncReads > 0) {
+            throw new WalkException("Options --chunks and --async can't be used together");
+        }
+        if (duplicates && (cacheFileName != null || chunksFileName != null || asyncReads > 0)) {
+            throw new WalkException("Option --duplicates can't be used together with --cache, --chunks or --async");
+        }
+        return new WalkOptions(files.get(0), files.get(1), threads, mapThreshold, hashAlgorithm, cacheFileName, walkers, asyncReads, progressSeconds, chunksFileName, duplicates);
+    }
+
+    private static String value(final String[] args, final int index) throws WalkException {
+        if (index >= args.length) {
+            throw new WalkException("Option " + args[index - 1] + " requires a value. " + USAGE);
+        }
+        return args[index];
+    }
+
+    private static long parse(final String[] args, final int index, final long min, final long max) throws WalkException {
+        final String string = value(args, index);
+        try {
+            final long value = Long.parseLong(string);
+            if (min <= value && value <= max) {
+                return value;
+            }
+        } catch (final NumberFormatException ignored) {
+        }
+        throw new WalkException("Value of " + args[index - 1] + " must be an integer between " + min + " and " + max);
+    }
+
+    public String getInputFileName() {
+        return inputFileName;
+    }
+
+    public String getOutputFileName() {
+        return outputFileName;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getMapThreshold() {
+        return mapThreshold;
+    }
+
+    public HashAlgorithm getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    /**
+     * Returns name of the persistent hash cache file, or {@code null} if caching is disabled.
+     */
+    public String getCacheFileName() {
+        return cacheFileName;
+    }
+
+    /**
+     * Returns number of fork/join directory traversal threads, or {@code 0} to traverse on the calling thread.
+     */
+    public int getWalkers() {
+        return walkers;
+    }
+
+    /**
+     * Returns maximal number of outstanding asynchronous reads, or {@code 0} to read files synchronously.
+     */
+    public int getAsyncReads() {
+        return asyncReads;
+    }
+
+    /**
+     * Returns period of progress reports to {@link System#err}, or {@code 0} if they are disabled.
+     */
+    public int getProgressSeconds() {
+        return progressSeconds;
+    }
+
+    /**
+     * Returns name of the chunk manifest file, or {@code null} if files aren't split into chunks.
+     */
+    public String getChunksFileName() {
+        return chunksFileName;
+    }
+
+    /**
+     * Returns whether groups of equal files are written instead of digests of all files.
+     */
+    public boolean isDuplicates() {
+        return duplicates;
+    }
+}
@@ -0,0 +1,82 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class WalkStats implements WalkStatsMXBean {
+    private final LongAdder filesVisited = new LongAdder();
+    private final LongAdder bytesHashed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LatencyHistogram cacheLatency = new LatencyHistogram();
+    private final LatencyHistogram hashLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    private long sampleBytes;
+    private long sampleTime = System.nanoTime();
+    private volatile double megabytesPerSecond;
+
+    public void visited() {
+        filesVisited.increment();
+    }
+
+    public void hashed(final long bytes) {
+        bytesHashed.add(bytes);
+    }
+
+    public void failed() {
+        failures.increment();
+    }
+
+    /**
+     * Updates current throughput with bytes hashed since the previous sample.
+     */
+    public synchronized void sample() {
+        final long time = System.nanoTime();
+        final long bytes = bytesHashed.sum();
+        if (time > sampleTime) {
+            megabytesPerSecond = (bytes - sampleBytes) * 1e3 / (time - sampleTime);
+        }
+        sampleBytes = bytes;
+        sampleTime = time;
+    }
+
+    @Override
+    public long getFilesVisited() {
+        return filesVisited.sum();
+    }
+
+    @Override
+    public long getBytesHashed() {
+        return bytesHashed.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMegabytesPerSecond() {
+        return megabytesPerSecond;
+    }
+
+    @Override
+    public LatencyHistogram getCacheLatency() {
+        return cacheLatency;
+    }
+
+    @Override
+    public LatencyHistogram getHashLatency() {
+        return hashLatency;
+    }
+
+    @Override
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files, %.1f MB hashed, %d failures, %.1f MB/s",
+                getFilesVisited(), getBytesHashed() / 1e6, getFailures(), getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,17 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+public interface WalkStatsMXBean {
+    long getFilesVisited();
+
+    long getBytesHashed();
+
+    long getFailures();
+
+    double getMegabytesPerSecond();
+
+    LatencyHistogram getCacheLatency();
+
+    LatencyHistogram getHashLatency();
+
+    LatencyHistogram getWriteLatency();
+}
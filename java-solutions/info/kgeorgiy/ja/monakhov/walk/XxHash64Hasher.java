@@ -0,0 +1,114 @@
+package info.kgeorgiy.ja.monakhov.walk;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class XxHash64Hasher implements FileHasher {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE = 32;
+
+    // Tail of the input that doesn't fill a whole stripe yet
+    private final ByteBuffer memory = ByteBuffer.allocate(STRIPE).order(ByteOrder.LITTLE_ENDIAN);
+    private long v1, v2, v3, v4;
+    private long total;
+
+    public XxHash64Hasher() {
+        reset();
+    }
+
+    @Override
+    public int length() {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+        total += buffer.remaining();
+        if (memory.position() > 0) {
+            while (memory.hasRemaining() && buffer.hasRemaining()) {
+                memory.put(buffer.get());
+            }
+            if (memory.hasRemaining()) {
+                return;
+            }
+            stripe(memory.flip());
+            memory.clear();
+        }
+        while (buffer.remaining() >= STRIPE) {
+            stripe(buffer);
+        }
+        memory.put(buffer);
+    }
+
+    private void stripe(final ByteBuffer buffer) {
+        v1 = round(v1, getLong(buffer));
+        v2 = round(v2, getLong(buffer));
+        v3 = round(v3, getLong(buffer));
+        v4 = round(v4, getLong(buffer));
+    }
+
+    @Override
+    public void digest(final byte[] result, final int offset) {
+        long hash;
+        if (total >= STRIPE) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+        hash += total;
+
+        memory.flip();
+        while (memory.remaining() >= Long.BYTES) {
+            hash ^= round(0, memory.getLong());
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+        }
+        if (memory.remaining() >= Integer.BYTES) {
+            hash ^= (memory.getInt() & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+        }
+        while (memory.hasRemaining()) {
+            hash ^= (memory.get() & 0xFF) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+
+        HashAlgorithm.putBytes(result, offset, hash, Long.BYTES);
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+        total = 0;
+        memory.clear();
+    }
+
+    private static long getLong(final ByteBuffer buffer) {
+        final long value = buffer.getLong();
+        return buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    private static long round(final long acc, final long input) {
+        return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+    }
+
+    private static long merge(final long hash, final long acc) {
+        return (hash ^ round(0, acc)) * PRIME1 + PRIME4;
+    }
+}
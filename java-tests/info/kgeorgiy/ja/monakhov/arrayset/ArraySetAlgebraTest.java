@@ -0,0 +1,43 @@
+package info.kgeorgiy.ja.monakhov.arrayset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+public class ArraySetAlgebraTest {
+    private static final ArraySet<Integer> NATURAL = new ArraySet<>(List.of(3, 1, 2, 5), Comparator.naturalOrder());
+    private static final ArraySet<Integer> DEFAULT = new ArraySet<>(List.of(2, 4, 5));
+
+    @Test
+    public void reversedTwice() {
+        final ArraySet<Integer> reversed = NATURAL.descendingSet().descendingSet();
+        Assert.assertSame(NATURAL.comparator(), reversed.comparator());
+        Assert.assertEquals(List.of(1, 2, 3, 5), List.copyOf(reversed.union(NATURAL)));
+        Assert.assertEquals(List.of(1, 2, 3, 5), List.copyOf(reversed.intersection(NATURAL)));
+        Assert.assertEquals(List.of(), List.copyOf(reversed.difference(NATURAL)));
+    }
+
+    @Test
+    public void naturalOrderAndNull() {
+        Assert.assertEquals(List.of(1, 2, 3, 4, 5), List.copyOf(NATURAL.union(DEFAULT)));
+        Assert.assertEquals(List.of(2, 5), List.copyOf(DEFAULT.intersection(NATURAL)));
+        Assert.assertEquals(List.of(1, 3), List.copyOf(NATURAL.difference(DEFAULT)));
+        Assert.assertTrue(NATURAL.containsAll(new ArraySet<>(List.of(1, 5))));
+    }
+
+    @Test
+    public void descending() {
+        final ArraySet<Integer> descending = NATURAL.descendingSet();
+        final ArraySet<Integer> other = DEFAULT.descendingSet();
+        Assert.assertEquals(List.of(5, 4, 3, 2, 1), List.copyOf(descending.union(other)));
+        Assert.assertEquals(List.of(5, 2), List.copyOf(descending.intersection(other)));
+        Assert.assertEquals(List.of(3, 1), List.copyOf(descending.difference(other)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentOrders() {
+        NATURAL.union(DEFAULT.descendingSet());
+    }
+}
@@ -0,0 +1,9 @@
+SET lib=..\..\java-advanced-2021\lib
+SET src=..\java-solutions
+SET dest=tmp-tests
+
+javac -encoding UTF-8 -d %dest% -cp %lib%\* -sourcepath %src%;. info\kgeorgiy\ja\monakhov\arrayset\*.java
+
+java -cp %dest%;%lib%\* org.junit.runner.JUnitCore info.kgeorgiy.ja.monakhov.arrayset.ArraySetAlgebraTest
+
+rmdir /s /q %dest%